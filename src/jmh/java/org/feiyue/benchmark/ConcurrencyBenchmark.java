@@ -0,0 +1,129 @@
+package org.feiyue.benchmark;
+
+import org.feiyue.service.MinioService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同并发数下的小对象读写：每次调用在虚拟线程上同时发出 concurrency 个请求并等待全部完成，
+ * 总请求速率见 Requests.requests，主要反映连接池和 minio.http.max-requests-per-host 的影响
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrencyBenchmark {
+
+    private static final int OBJECTS = 64;
+
+    @Param({"1", "16", "64", "256"})
+    public int concurrency;
+
+    @Param({"64KB"})
+    public String size;
+
+    private StandInEnvironment environment;
+    private MinioService minioService;
+    private ExecutorService executor;
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = StandInEnvironment.start(Map.of());
+        minioService = environment.minioService();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        data = StandInEnvironment.randomBytes(DataSize.parse(size).toBytes());
+        for (int i = 0; i < OBJECTS; i++) {
+            environment.server().putObject(StandInEnvironment.BUCKET, objectName(i), data);
+        }
+        // 先建立 Bucket 状态缓存
+        minioService.checkAndCreateBucket(StandInEnvironment.BUCKET);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        environment.close();
+    }
+
+    @Benchmark
+    public void get(Requests requests) throws Exception {
+        List<Future<Long>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            String objectName = objectName(i);
+            futures.add(executor.submit(() -> {
+                try (InputStream in = minioService.getObject(StandInEnvironment.BUCKET, objectName, 0, -1)) {
+                    return in.transferTo(OutputStream.nullOutputStream());
+                }
+            }));
+        }
+        await(futures);
+        requests.requests += concurrency;
+    }
+
+    @Benchmark
+    public void upload(Requests requests) throws Exception {
+        List<Future<String>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            String objectName = "upload/" + objectName(i);
+            futures.add(executor.submit(() -> minioService.uploadFile(StandInEnvironment.BUCKET, objectName,
+                    new ByteArrayInputStream(data), data.length, "application/octet-stream")));
+        }
+        await(futures);
+        requests.requests += concurrency;
+    }
+
+    private static String objectName(int index) {
+        return "concurrent/" + (index % OBJECTS) + ".bin";
+    }
+
+    private static void await(List<? extends Future<?>> futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    /**
+     * 每秒完成的请求数
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Requests {
+
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+        }
+    }
+}
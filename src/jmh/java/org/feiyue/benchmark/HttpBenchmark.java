@@ -0,0 +1,170 @@
+package org.feiyue.benchmark;
+
+import org.feiyue.exception.MinioException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 经过 MinioController 的 HTTP 请求延迟：应用在随机端口上启动内嵌 Tomcat，
+ * 与 SmallObjectBenchmark 对比可以看出 Servlet 容器、响应映射（JSON、缓存头、Range）和流式上传解析的开销
+ * （org.Program 是独立的 SDK 示例程序，不在服务的请求路径上，不做基准测试）
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpBenchmark {
+
+    private static final String OBJECT = "http/object.bin";
+
+    private static final String BOUNDARY = "----feiyueBenchmarkBoundary";
+
+    @Param({"64KB", "16MB"})
+    public String size;
+
+    private StandInEnvironment environment;
+    private HttpClient client;
+    private URI fileInfo;
+    private URI download;
+    private URI upload;
+    private byte[] uploadBody;
+    private long objectSize;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, MinioException {
+        environment = StandInEnvironment.startServer(Map.of());
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        byte[] data = StandInEnvironment.randomBytes(DataSize.parse(size).toBytes());
+        objectSize = data.length;
+        environment.minioService().uploadFile(StandInEnvironment.BUCKET, OBJECT, new ByteArrayInputStream(data),
+                data.length, "application/octet-stream");
+
+        String query = "?bucketName=" + StandInEnvironment.BUCKET + "&objectName=" + OBJECT;
+        fileInfo = URI.create(environment.baseUrl() + "/fileInfo" + query);
+        download = URI.create(environment.baseUrl() + "/download/stream" + query);
+        upload = URI.create(environment.baseUrl() + "/upload");
+        uploadBody = multipartBody(data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public String fileInfo() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(fileInfo).GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public void download(ReadBuffer buffer, Blackhole blackhole) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = send(HttpRequest.newBuilder(download).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream in = response.body()) {
+            blackhole.consume(buffer.drain(in));
+        }
+    }
+
+    // 对象中间的 64KB，走单次请求的 Range 读取
+    @Benchmark
+    public void downloadRange(ReadBuffer buffer, Blackhole blackhole) throws IOException, InterruptedException {
+        long start = objectSize / 2;
+        long end = Math.min(objectSize, start + 64 * 1024) - 1;
+        HttpRequest request = HttpRequest.newBuilder(download)
+                .header("Range", "bytes=" + start + "-" + end)
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream in = response.body()) {
+            blackhole.consume(buffer.drain(in));
+        }
+    }
+
+    @Benchmark
+    public String upload() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(upload)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(uploadBody))
+                .build();
+        return send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        HttpResponse<T> response = client.send(request, handler);
+        int status = response.statusCode();
+        if (status != 200 && status != 206) {
+            if (response.body() instanceof InputStream in) {
+                in.close();
+            }
+            throw new IOException(request.method() + " " + request.uri() + " 返回 " + status);
+        }
+        return response;
+    }
+
+    // bucketName、objectName 在 file 之前，流式上传时可以边接收边上传
+    private static byte[] multipartBody(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length + 512);
+        String fields = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"bucketName\"\r\n\r\n"
+                + StandInEnvironment.BUCKET + "\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"objectName\"\r\n\r\n"
+                + "http/upload.bin\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"upload.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n";
+        out.writeBytes(fields.getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(content);
+        out.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    /**
+     * 每个线程复用的读取缓冲区，避免把测试代码自身的分配计入结果
+     */
+    @State(Scope.Thread)
+    public static class ReadBuffer {
+
+        private final byte[] buffer = new byte[64 * 1024];
+
+        long drain(InputStream in) throws IOException {
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                total += read;
+            }
+            return total;
+        }
+    }
+}
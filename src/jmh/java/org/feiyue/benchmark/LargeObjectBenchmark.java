@@ -0,0 +1,157 @@
+package org.feiyue.benchmark;
+
+import org.feiyue.exception.MinioException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 大对象的吞吐量：分片上传、按不同缓冲区大小读取对象流、下载到本地文件（含分段并行下载）
+ * 每秒字节数见 Transferred.bytes；下载的缓冲区大小同时作为 minio.download.buffer-size
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LargeObjectBenchmark {
+
+    private static final String OBJECT = "large/object.bin";
+
+    @Benchmark
+    public String upload(UploadState state, Transferred transferred) throws MinioException {
+        String result = state.environment.minioService().uploadFile(StandInEnvironment.BUCKET, "large/upload.bin",
+                new ByteArrayInputStream(state.data), state.data.length, "application/octet-stream");
+        transferred.bytes += state.data.length;
+        return result;
+    }
+
+    @Benchmark
+    public long stream(DownloadState state, Transferred transferred) throws IOException, MinioException {
+        long total = 0;
+        try (InputStream in = state.environment.minioService().getObject(StandInEnvironment.BUCKET, OBJECT, 0, -1)) {
+            int read;
+            while ((read = in.read(state.buffer)) >= 0) {
+                total += read;
+            }
+        }
+        transferred.bytes += total;
+        return total;
+    }
+
+    @Benchmark
+    public String downloadFile(DownloadState state, Transferred transferred) throws MinioException {
+        String result = state.environment.minioService().downloadFile(StandInEnvironment.BUCKET, OBJECT,
+                state.directory.toString() + "/");
+        transferred.bytes += state.objectSize;
+        return result;
+    }
+
+    @State(Scope.Benchmark)
+    public static class UploadState {
+
+        // 大于 minio.upload.part-size（10MB）时走分片上传
+        @Param({"16MB", "128MB"})
+        public String size;
+
+        StandInEnvironment environment;
+        byte[] data;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            environment = StandInEnvironment.start(Map.of());
+            data = StandInEnvironment.randomBytes(DataSize.parse(size).toBytes());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            environment.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DownloadState {
+
+        // 大于两个下载分段（16MB）时 downloadFile 分段并行下载
+        @Param({"16MB", "128MB"})
+        public String size;
+
+        @Param({"8KB", "64KB", "256KB", "1MB"})
+        public String bufferSize;
+
+        StandInEnvironment environment;
+        Path directory;
+        byte[] buffer;
+        long objectSize;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            environment = StandInEnvironment.start(Map.of("minio.download.buffer-size", bufferSize));
+            byte[] data = StandInEnvironment.randomBytes(DataSize.parse(size).toBytes());
+            environment.server().putObject(StandInEnvironment.BUCKET, OBJECT, data);
+            objectSize = data.length;
+            buffer = new byte[Math.toIntExact(DataSize.parse(bufferSize).toBytes())];
+            directory = Files.createTempDirectory("minio-benchmark-");
+        }
+
+        // 下载遇到同名文件会改名，每次调用后清空目录
+        @TearDown(Level.Invocation)
+        public void cleanDirectory() throws IOException {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            environment.close();
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * 每秒传输的字节数
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Transferred {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.feiyue.benchmark;
+
+import org.feiyue.exception.MinioException;
+import org.feiyue.service.MinioService;
+import org.feiyue.standin.S3StandInServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 小对象的单次请求延迟：上传、statObject、读取整个对象
+ * 采样模式输出延迟分布（p50/p99/p99.9），配合 -prof gc 查看每次操作的分配量；
+ * latency/latencyJitter 为模拟服务注入的延迟，用于观察慢节点下的尾延迟（如 -p latencyJitter=20ms）
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmallObjectBenchmark {
+
+    private static final String OBJECT = "small/object.bin";
+
+    @Param({"1KB", "64KB", "1MB"})
+    public String size;
+
+    @Param({"0ms"})
+    public String latency;
+
+    @Param({"0ms"})
+    public String latencyJitter;
+
+    private StandInEnvironment environment;
+    private MinioService minioService;
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, MinioException {
+        S3StandInServer.Faults faults = new S3StandInServer.Faults(
+                DurationStyle.detectAndParse(latency), DurationStyle.detectAndParse(latencyJitter), 0, 0);
+        environment = StandInEnvironment.start(faults, Map.of());
+        minioService = environment.minioService();
+        data = StandInEnvironment.randomBytes(DataSize.parse(size).toBytes());
+        minioService.uploadFile(StandInEnvironment.BUCKET, OBJECT, new ByteArrayInputStream(data),
+                data.length, "application/octet-stream");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public String upload() throws MinioException {
+        return minioService.uploadFile(StandInEnvironment.BUCKET, "small/upload.bin", new ByteArrayInputStream(data),
+                data.length, "application/octet-stream");
+    }
+
+    @Benchmark
+    public Object stat() throws MinioException {
+        return minioService.getFileInfo(StandInEnvironment.BUCKET, OBJECT);
+    }
+
+    @Benchmark
+    public void get(ReadBuffer buffer, Blackhole blackhole) throws IOException, MinioException {
+        try (InputStream in = minioService.getObject(StandInEnvironment.BUCKET, OBJECT, 0, -1)) {
+            blackhole.consume(buffer.drain(in));
+        }
+    }
+
+    /**
+     * 每个线程复用的读取缓冲区，避免把测试代码自身的分配计入结果
+     */
+    @State(Scope.Thread)
+    public static class ReadBuffer {
+
+        private final byte[] buffer = new byte[64 * 1024];
+
+        long drain(InputStream in) throws IOException {
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                total += read;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.feiyue.benchmark;
+
+import org.feiyue.Application;
+import org.feiyue.service.MinioService;
+import org.feiyue.standin.S3StandInServer;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 基准测试环境：启动进程内 S3 服务，再以非 Web 方式启动应用上下文并指向它，
+ * 基准测试通过真实的 MinioService（连接池、重试、指标等）访问存储；
+ * startServer 同时在随机端口上启动内嵌 Tomcat，用于经过 MinioController 的 HTTP 基准测试
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+final class StandInEnvironment implements AutoCloseable {
+
+    static final String BUCKET = "benchmark";
+
+    private final S3StandInServer server;
+    private final ConfigurableApplicationContext context;
+    private final MinioService minioService;
+
+    private StandInEnvironment(S3StandInServer server, ConfigurableApplicationContext context) {
+        this.server = server;
+        this.context = context;
+        this.minioService = context.getBean(MinioService.class);
+    }
+
+    static StandInEnvironment start(Map<String, Object> overrides) throws IOException {
+        return start(S3StandInServer.Faults.NONE, overrides);
+    }
+
+    /**
+     * @param faults 模拟服务注入的延迟、带宽限制和错误率
+     * @param overrides 覆盖 application.yml 的配置项，如 minio.download.buffer-size
+     */
+    static StandInEnvironment start(S3StandInServer.Faults faults, Map<String, Object> overrides) throws IOException {
+        return start(faults, overrides, WebApplicationType.NONE);
+    }
+
+    /**
+     * 启动包含 Web 服务（随机端口）的应用，接口地址见 baseUrl()
+     */
+    static StandInEnvironment startServer(Map<String, Object> overrides) throws IOException {
+        Map<String, Object> properties = new LinkedHashMap<>(overrides);
+        properties.putIfAbsent("server.port", "0");
+        return start(S3StandInServer.Faults.NONE, properties, WebApplicationType.SERVLET);
+    }
+
+    private static StandInEnvironment start(S3StandInServer.Faults faults, Map<String, Object> overrides,
+                                            WebApplicationType webApplicationType) throws IOException {
+        S3StandInServer server = S3StandInServer.start(0, faults);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("minio.endpoint", server.endpoint());
+        // 关闭元数据缓存，stat 每次都访问存储
+        properties.put("minio.metadata-cache.ttl", "0");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.org.feiyue", "WARN");
+        properties.put("logging.level.io.minio", "WARN");
+        properties.put("logging.level.org.feiyue.standin", "WARN");
+        properties.putAll(overrides);
+        // 以命令行参数传入，优先级高于 application.yml（SpringApplicationBuilder.properties 只是默认值）
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        try {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                    .web(webApplicationType)
+                    .bannerMode(Banner.Mode.OFF)
+                    .logStartupInfo(false)
+                    .run(args);
+            return new StandInEnvironment(server, context);
+        } catch (RuntimeException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    MinioService minioService() {
+        return minioService;
+    }
+
+    S3StandInServer server() {
+        return server;
+    }
+
+    /**
+     * startServer 启动的接口地址，如 http://127.0.0.1:12345/api/minio
+     */
+    String baseUrl() {
+        String port = context.getEnvironment().getProperty("local.server.port");
+        String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+        return "http://127.0.0.1:" + port + contextPath + "/minio";
+    }
+
+    /**
+     * 固定种子的随机内容，避免全零数据被压缩或特殊处理
+     */
+    static byte[] randomBytes(long size) {
+        byte[] data = new byte[Math.toIntExact(size)];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        server.close();
+    }
+}
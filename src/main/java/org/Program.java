@@ -2,30 +2,49 @@ package org;
 
 import io.minio.*;
 import io.minio.errors.MinioException;
+import org.feiyue.standin.S3StandInServer;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 
 public class Program {
+    // 参数为 MinIO 地址，或 --standin 使用内置的 S3 模拟服务（不需要 MinIO）
     public static void main(String[] args) {
         System.out.println("hello java");
+        String endpoint = args.length > 0 ? args[0] : "http://127.0.0.1:9000";
+        S3StandInServer standIn = null;
         try {
-            test1();
+            if ("--standin".equals(endpoint)) {
+                standIn = S3StandInServer.start(0, S3StandInServer.Faults.NONE);
+                endpoint = standIn.endpoint();
+            }
+            test1(endpoint);
         } catch (Exception e) {
             System.out.println("test1错误: " + e);
+        } finally {
+            if (standIn != null) {
+                standIn.close();
+            }
         }
     }
 
-    public static void test1() throws NoSuchAlgorithmException, IOException,
+    public static void test1(String endpoint) throws NoSuchAlgorithmException, IOException,
             InvalidKeyException, XmlPullParserException {
         try {
             // 初始化客户端
             MinioClient minioClient = MinioClient.builder()
-                    .endpoint("http://127.0.0.1:9000")
+                    .endpoint(endpoint)
                     .credentials("minioadmin", "minioadmin")
                     .build();
 
@@ -65,20 +84,38 @@ public class Program {
             );
             System.out.println("文件名：" + fileStat.object() + ", 文件大小:" + fileStat.size());
 
-            // 下载文件（通过流写入本地文件，兼容8.5.2版本）
+            // 下载文件（先写临时文件，用直接缓冲区读满后按位置写盘，与服务的 FileTransfers 一致，完成后原子重命名）
+            Path target = Paths.get("D:/tujpg_minio.png");
+            Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "." + target.getFileName() + ".", ".part");
             try (InputStream stream = minioClient.getObject(
                     GetObjectArgs.builder()
                             .bucket("test1")
                             .object("tujpg2.png")
                             .build());
-                 OutputStream outputStream = Files.newOutputStream(Paths.get("D:/tujpg_minio.png"))) {
+                 ReadableByteChannel source = Channels.newChannel(stream);
+                 FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
 
-                byte[] buf = new byte[1024];
-                int bytesRead;
-                while ((bytesRead = stream.read(buf)) != -1) {
-                    outputStream.write(buf, 0, bytesRead);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+                long position = 0;
+                boolean end = false;
+                while (!end) {
+                    buffer.clear();
+                    while (buffer.hasRemaining()) {
+                        if (source.read(buffer) < 0) {
+                            end = true;
+                            break;
+                        }
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
                 }
+            } catch (Exception e) {
+                Files.deleteIfExists(temp);
+                throw e;
             }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             System.out.println("下载成功了");
 
         } catch (MinioException e) {
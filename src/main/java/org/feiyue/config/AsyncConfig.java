@@ -0,0 +1,66 @@
+package org.feiyue.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * 异步请求配置
+ * 下载流、批量查询等 StreamingResponseBody 以及上传、下载到本地等 WebAsyncTask 在该执行器中运行，
+ * 不占用 Tomcat 请求线程；开启 spring.threads.virtual.enabled 后请求线程和该执行器都使用虚拟线程，
+ * 并发传输数只受连接数限制；未开启时使用有界线程池，线程和等待队列都满后拒绝新任务，
+ * 由 GlobalExceptionHandler 返回 503，不阻塞 Tomcat 请求线程
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // 流式响应的超时时间，0 表示不超时
+    @Value("${minio.async.stream-timeout:1h}")
+    private Duration streamTimeout;
+
+    // 未使用虚拟线程时同时进行的异步传输数上限
+    @Value("${minio.async.platform-concurrency:200}")
+    private int platformConcurrency;
+
+    // 未使用虚拟线程时线程全忙后排队等待的任务数上限，超出时拒绝并返回 503
+    @Value("${minio.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Bean
+    public AsyncTaskExecutor minioAsyncExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("minio-async-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        // 核心线程数等于最大线程数，先用满线程再排队；队列满后默认的 AbortPolicy 抛出 TaskRejectedException
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("minio-async-");
+        executor.setCorePoolSize(platformConcurrency);
+        executor.setMaxPoolSize(platformConcurrency);
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(minioAsyncExecutor());
+        configurer.setDefaultTimeout(streamTimeout.toMillis());
+    }
+}
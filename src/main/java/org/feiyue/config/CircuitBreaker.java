@@ -0,0 +1,135 @@
+package org.feiyue.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个MinIO节点的熔断器
+ * 连续失败达到阈值后打开，打开期间直接拒绝请求；经过 openDuration 后进入半开状态，
+ * 只放行一个试探请求，成功则关闭，失败则重新打开
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final AtomicLong opens = new AtomicLong();
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    private boolean enabled() {
+        return failureThreshold > 0;
+    }
+
+    /**
+     * 是否允许发出请求；半开状态下只允许一个试探请求，调用后必须以 onSuccess 或 onFailure 结束
+     */
+    boolean tryAcquire() {
+        if (!enabled()) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * 不消耗试探机会，仅判断当前是否可能放行，用于选择节点
+     */
+    boolean isAvailable() {
+        if (!enabled()) {
+            return true;
+        }
+        lock.lock();
+        try {
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> System.nanoTime() - openedAt >= openNanos;
+                case HALF_OPEN -> !trialInFlight;
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onSuccess() {
+        if (!enabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            consecutiveFailures = 0;
+            state = State.CLOSED;
+            trialInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 本次失败是否使熔断器打开
+     */
+    boolean onFailure() {
+        if (!enabled()) {
+            return false;
+        }
+        lock.lock();
+        try {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                trialInFlight = false;
+                opens.incrementAndGet();
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long opens() {
+        return opens.get();
+    }
+}
@@ -0,0 +1,651 @@
+package org.feiyue.config;
+
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.feiyue.exception.MinioException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 多节点 MinioClient 池
+ * 每个MinIO节点一个客户端，按最少未完成请求数或 EWMA 延迟选择节点；
+ * 健康检查连续失败或连接失败的节点被摘除，检查恢复后重新加入。所有节点都被摘除时仍按全部节点选择
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public class MinioClientPool implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinioClientPool.class);
+
+    // EWMA 延迟的平滑系数，越大越偏向最近的请求
+    private static final double EWMA_ALPHA = 0.3;
+
+    private static final BooleanSupplier NOT_CANCELLED = () -> false;
+
+    /**
+     * 节点选择策略
+     */
+    public enum Strategy {
+        // 未完成请求数最少
+        LEAST_OUTSTANDING,
+        // EWMA 延迟乘以（未完成请求数 + 1）最小
+        EWMA
+    }
+
+    /**
+     * 在选中的客户端上执行的 MinIO 操作
+     */
+    @FunctionalInterface
+    public interface MinioCall<T> {
+        T apply(MinioClient client) throws Exception;
+    }
+
+    /**
+     * 在选中节点的底层 S3 客户端（RawS3Client）上执行的操作
+     */
+    @FunctionalInterface
+    public interface RawCall<T> {
+        T apply(RawS3Client client) throws Exception;
+    }
+
+    // 内部统一按节点执行，MinioCall 和 RawCall 分别取节点上对应的客户端
+    @FunctionalInterface
+    private interface EndpointCall<T> {
+        T apply(Endpoint endpoint) throws Exception;
+    }
+
+    private final List<Endpoint> endpoints;
+    private final Strategy strategy;
+    private final int failureThreshold;
+    private final int successThreshold;
+    private final OkHttpClient probeClient;
+    private final ScheduledExecutorService healthChecker;
+
+    // 读请求对冲，为 null 时不对冲
+    private final RequestHedger hedger;
+
+    private final RetryPolicy retryPolicy;
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong circuitRejections = new AtomicLong();
+
+    MinioClientPool(List<String> urls, String accessKey, String secretKey, OkHttpClient httpClient,
+                    Strategy strategy, Duration healthInterval, Duration healthTimeout,
+                    int failureThreshold, int successThreshold, RequestHedger hedger,
+                    RetryPolicy retryPolicy, int breakerFailureThreshold, Duration breakerOpenDuration) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("至少需要配置一个MinIO地址");
+        }
+        List<Endpoint> list = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            MinioClient client = MinioClient.builder()
+                    .endpoint(url)
+                    .credentials(accessKey, secretKey)
+                    .httpClient(httpClient)
+                    .build();
+            RawS3Client rawClient = new RawS3Client(MinioAsyncClient.builder()
+                    .endpoint(url)
+                    .credentials(accessKey, secretKey)
+                    .httpClient(httpClient)
+                    .build());
+            list.add(new Endpoint(url, client, rawClient,
+                    new CircuitBreaker(breakerFailureThreshold, breakerOpenDuration)));
+        }
+        this.endpoints = List.copyOf(list);
+        this.strategy = strategy;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.successThreshold = Math.max(1, successThreshold);
+        this.hedger = hedger;
+        this.retryPolicy = retryPolicy;
+        this.probeClient = httpClient.newBuilder()
+                .callTimeout(healthTimeout)
+                .build();
+
+        // 只有一个节点时摘除没有意义，不做健康检查
+        if (endpoints.size() > 1 && !healthInterval.isZero()) {
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofVirtual().name("minio-health-check").factory());
+            long interval = healthInterval.toMillis();
+            healthChecker.scheduleWithFixedDelay(this::probeAll, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.healthChecker = null;
+        }
+        logger.info("MinIO节点: {}, 选择策略: {}", urls, strategy);
+    }
+
+    /**
+     * 选择一个节点执行操作，记录未完成请求数和延迟；
+     * 连接建立失败时请求尚未发出，立即换一个节点重试（每个节点最多一次），
+     * 限流、5xx 等可重试错误按指数退避重试；所有节点都已熔断时抛出 CONNECTION_ERROR_CODE
+     */
+    public <T> T execute(MinioCall<T> call) throws Exception {
+        return execute(endpoint -> call.apply(endpoint.client), true, new ArrayList<>(1), null, NOT_CANCELLED);
+    }
+
+    /**
+     * 选择一个节点执行不可重复的操作（如从数据流上传，分片上传中途失败时流已被部分读取），失败时不重试，
+     * 但仍受熔断器限制
+     */
+    public <T> T executeOnce(MinioCall<T> call) throws Exception {
+        return execute(endpoint -> call.apply(endpoint.client), false, new ArrayList<>(1), null, NOT_CANCELLED);
+    }
+
+    /**
+     * 执行分片上传的底层操作（创建、查询、合并、放弃）或按页列出对象，失败时与 execute 一样换节点和重试；
+     * 各节点属于同一集群，分片上传和续列令牌可以在任一节点上继续
+     */
+    public <T> T executeRaw(RawCall<T> call) throws Exception {
+        return execute(endpoint -> call.apply(endpoint.rawClient), true, new ArrayList<>(1), null, NOT_CANCELLED);
+    }
+
+    /**
+     * 执行不能重复发送的底层操作，失败时不重试，如从数据流上传单个分片（流不可重复读取），由客户端重新上传该分片
+     */
+    public <T> T executeRawOnce(RawCall<T> call) throws Exception {
+        return execute(endpoint -> call.apply(endpoint.rawClient), false, new ArrayList<>(1), null, NOT_CANCELLED);
+    }
+
+    /**
+     * 执行幂等的读操作（statObject、getObject）：超过该操作近期的百分位延迟仍未响应时，
+     * 在另一个节点上再发一个相同请求，先得到响应的一方胜出；落后的一方不再重试，在返回时立即关闭，不再读取数据。
+     * 未开启对冲、样本不足或对冲预算用完时与 execute 相同
+     *
+     * @param operation 操作名称，不同操作分别统计延迟
+     */
+    public <T> T executeHedged(String operation, MinioCall<T> call) throws Exception {
+        if (hedger == null) {
+            return execute(call);
+        }
+        long delay = hedger.delayNanos(operation);
+        // 任一方胜出后，另一方不再重试
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicReference<Endpoint> primaryEndpoint = new AtomicReference<>();
+        CompletableFuture<T> primary = startAttempt(operation, call, new ArrayList<>(1), primaryEndpoint,
+                winner::isDone);
+        if (delay < 0) {
+            return await(primary);
+        }
+        try {
+            return unwrap(() -> primary.get(delay, TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            // 超过对冲延迟仍未响应
+        } catch (InterruptedException e) {
+            releaseWhenDone(primary);
+            throw e;
+        }
+        if (!hedger.tryAcquire()) {
+            return await(primary);
+        }
+
+        List<Endpoint> excluded = new ArrayList<>(1);
+        if (primaryEndpoint.get() != null && endpoints.size() > 1) {
+            excluded.add(primaryEndpoint.get());
+        }
+        CompletableFuture<T> hedge = startAttempt(operation, call, excluded, null, winner::isDone);
+        logger.debug("请求超过 {}ms 未响应，发起对冲请求: operation={}", delay / 1_000_000.0, operation);
+
+        // 先得到结果（或服务端明确的错误）的一方胜出；连接类错误等待另一方
+        AtomicInteger failed = new AtomicInteger();
+        primary.whenComplete((result, error) -> complete(winner, result, error, failed, false));
+        hedge.whenComplete((result, error) -> complete(winner, result, error, failed, true));
+        return await(winner);
+    }
+
+    private <T> void complete(CompletableFuture<T> winner, T result, Throwable error, AtomicInteger failed,
+                              boolean isHedge) {
+        if (error == null) {
+            if (winner.complete(result)) {
+                if (isHedge) {
+                    hedger.recordHedgeWin();
+                }
+            } else {
+                closeQuietly(result);
+            }
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        // 连接失败以及重试用完的可重试错误（限流、5xx）只说明这一方的节点不可用，等待另一方的结果
+        boolean transportFailure = RetryPolicy.isRetryable(cause) || (cause instanceof MinioException minioException
+                && MinioException.CONNECTION_ERROR_CODE.equals(minioException.getErrorCode()));
+        if (!transportFailure || failed.incrementAndGet() == 2) {
+            winner.completeExceptionally(cause);
+        }
+    }
+
+    // 在虚拟线程中执行一次请求（含连接失败时的换节点重试），完成后记录延迟
+    private <T> CompletableFuture<T> startAttempt(String operation, MinioCall<T> call, List<Endpoint> excluded,
+                                                  AtomicReference<Endpoint> selected, BooleanSupplier cancelled) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Thread.ofVirtual().name("minio-hedged-" + operation).start(() -> {
+            long start = System.nanoTime();
+            try {
+                T result = execute(endpoint -> call.apply(endpoint.client), true, excluded, selected, cancelled);
+                hedger.record(operation, System.nanoTime() - start);
+                future.complete(result);
+            } catch (Exception e) {
+                if (!isConnectFailure(e)) {
+                    hedger.record(operation, System.nanoTime() - start);
+                }
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    // 等待结果；调用方被中断时，结果到达后关闭
+    private <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return unwrap(future::get);
+        } catch (InterruptedException e) {
+            releaseWhenDone(future);
+            throw e;
+        }
+    }
+
+    private static <T> T unwrap(FutureGet<T> get) throws Exception {
+        try {
+            return get.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface FutureGet<T> {
+        T get() throws Exception;
+    }
+
+    private static void releaseWhenDone(CompletableFuture<?> future) {
+        future.whenComplete((result, error) -> closeQuietly(result));
+    }
+
+    // 关闭落后一方的响应（如 GetObjectResponse），释放连接且不再读取数据
+    private static void closeQuietly(Object result) {
+        if (result instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.debug("关闭对冲请求的响应失败: {}", e.toString());
+            }
+        }
+    }
+
+    // tried 中预先放入的节点（对冲请求排除的主请求节点）在所有重试中都被排除；cancelled 为 true 时不再重试
+    private <T> T execute(EndpointCall<T> call, boolean retryable, List<Endpoint> tried,
+                          AtomicReference<Endpoint> selected, BooleanSupplier cancelled) throws Exception {
+        List<Endpoint> excluded = List.copyOf(tried);
+        int attempt = 1;
+        while (true) {
+            Endpoint endpoint = acquire(tried);
+            if (selected != null) {
+                selected.set(endpoint);
+            }
+            endpoint.outstanding.incrementAndGet();
+            long start = System.nanoTime();
+            boolean settled = false;
+            try {
+                T result = call.apply(endpoint);
+                settled = true;
+                endpoint.recordSuccess(System.nanoTime() - start);
+                endpoint.breaker.onSuccess();
+                return result;
+            } catch (Exception e) {
+                settled = true;
+                boolean connectFailure = isConnectFailure(e);
+                if (!connectFailure && !RetryPolicy.isRetryable(e)) {
+                    // 服务端返回的错误（对象不存在等）说明节点可用
+                    endpoint.recordSuccess(System.nanoTime() - start);
+                    endpoint.breaker.onSuccess();
+                    throw e;
+                }
+                if (endpoint.breaker.onFailure()) {
+                    logger.warn("MinIO节点熔断: endpoint={}, error={}", endpoint.url, e.toString());
+                }
+                if (connectFailure) {
+                    markFailure(endpoint, e);
+                    tried.add(endpoint);
+                    // 连接失败时请求没有发出，直接换一个未尝试过的节点
+                    if (retryable && tried.size() < endpoints.size() && !cancelled.getAsBoolean()) {
+                        logger.warn("连接MinIO节点失败，切换节点重试: endpoint={}, error={}", endpoint.url, e.toString());
+                        continue;
+                    }
+                }
+                if (!retryable || attempt >= retryPolicy.maxAttempts() || cancelled.getAsBoolean()) {
+                    // 重试用完仍失败时按连接错误（503）报告，避免调用方把服务端的 5xx 当作对象或存储桶不存在；
+                    // 不可重试的调用中普通的 IOException 可能来自调用方自己的数据流，原样抛出
+                    if (connectFailure || retryable || !(e instanceof IOException)) {
+                        throw MinioException.connectionFailed(endpoint.url, e);
+                    }
+                    throw e;
+                }
+                long backoff = retryPolicy.backoffMillis(attempt);
+                retries.incrementAndGet();
+                logger.warn("MinIO请求失败，{} 毫秒后重试({}/{}): endpoint={}, error={}",
+                        backoff, attempt, retryPolicy.maxAttempts() - 1, endpoint.url, e.toString());
+                Thread.sleep(backoff);
+                if (cancelled.getAsBoolean()) {
+                    throw e;
+                }
+                attempt++;
+                tried.clear();
+                tried.addAll(excluded);
+            } finally {
+                if (!settled) {
+                    // Error 等未捕获的异常：按失败计入熔断器，释放半开状态下的试探名额
+                    endpoint.breaker.onFailure();
+                }
+                endpoint.outstanding.decrementAndGet();
+            }
+        }
+    }
+
+    // 选择节点并通过其熔断器；所有可选节点都已熔断时立即失败，不再等待超时
+    private Endpoint acquire(List<Endpoint> excluded) {
+        List<Endpoint> skipped = new ArrayList<>(excluded);
+        while (true) {
+            Endpoint endpoint = select(skipped);
+            if (endpoint == null) {
+                circuitRejections.incrementAndGet();
+                throw MinioException.connectionFailed(String.join(",", endpointUrls()),
+                        new IllegalStateException("所有可用的MinIO节点均已熔断"));
+            }
+            if (endpoint.breaker.tryAcquire()) {
+                return endpoint;
+            }
+            skipped.add(endpoint);
+        }
+    }
+
+    private List<String> endpointUrls() {
+        return endpoints.stream().map(endpoint -> endpoint.url).toList();
+    }
+
+    /**
+     * 选择一个客户端，用于 listenBucketNotification 等长连接，不参与请求统计
+     */
+    public MinioClient client() {
+        Endpoint endpoint = select(List.of());
+        if (endpoint == null) {
+            throw MinioException.connectionFailed(String.join(",", endpointUrls()),
+                    new IllegalStateException("所有可用的MinIO节点均已熔断"));
+        }
+        return endpoint.client;
+    }
+
+    /**
+     * 是否为重试可能成功的错误（网络中断、限流、5xx，以及重试用完后报告的连接错误），供在池外自行重试的调用方使用；
+     * 对象不存在、条件不满足（PreconditionFailed）、范围无效等服务端明确的错误不可重试
+     */
+    public static boolean isRetryable(Throwable e) {
+        if (e instanceof MinioException minioException) {
+            return MinioException.CONNECTION_ERROR_CODE.equals(minioException.getErrorCode());
+        }
+        return RetryPolicy.isRetryable(e);
+    }
+
+    /**
+     * 按重试策略（minio.retry）计算第 attempt 次重试前的等待时间，供在池外自行重试的调用方使用
+     */
+    public long backoffMillis(int attempt) {
+        return retryPolicy.backoffMillis(attempt);
+    }
+
+    /**
+     * 重试和熔断的统计
+     */
+    public Map<String, Object> retryStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxAttempts", retryPolicy.maxAttempts());
+        stats.put("retries", retries.get());
+        stats.put("circuitRejections", circuitRejections.get());
+        return stats;
+    }
+
+    /**
+     * 请求对冲的统计
+     */
+    public Map<String, Object> hedgingStats() {
+        return hedger == null ? Map.of("enabled", false) : hedger.stats();
+    }
+
+    /**
+     * 各节点状态
+     */
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("endpoint", endpoint.url);
+            item.put("healthy", endpoint.healthy);
+            item.put("outstanding", endpoint.outstanding.get());
+            item.put("ewmaLatencyMillis", endpoint.ewmaNanos / 1_000_000.0);
+            item.put("requests", endpoint.requests.get());
+            item.put("failures", endpoint.failures.get());
+            item.put("ejections", endpoint.ejections.get());
+            item.put("circuitState", endpoint.breaker.state().name());
+            item.put("circuitOpens", endpoint.breaker.opens());
+            stats.add(item);
+        }
+        return stats;
+    }
+
+    /**
+     * 注册各节点的未完成请求数、健康和熔断状态，以及重试、熔断拒绝和对冲次数
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Endpoint endpoint : endpoints) {
+            Tags tags = Tags.of("endpoint", endpoint.url);
+            Gauge.builder("minio.client.outstanding", endpoint.outstanding, AtomicInteger::get)
+                    .description("节点上未完成的请求数").tags(tags).register(registry);
+            Gauge.builder("minio.client.healthy", endpoint, e -> e.healthy ? 1 : 0)
+                    .description("节点是否健康（1 健康，0 已摘除）").tags(tags).register(registry);
+            Gauge.builder("minio.client.circuit.open", endpoint,
+                            e -> e.breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                    .description("节点熔断器是否打开（含半开）").tags(tags).register(registry);
+            Gauge.builder("minio.client.latency.ewma", endpoint, e -> e.ewmaNanos / 1_000_000_000.0)
+                    .description("节点响应延迟的 EWMA").baseUnit("seconds").tags(tags).register(registry);
+            FunctionCounter.builder("minio.client.failures", endpoint.failures, AtomicLong::get)
+                    .description("节点连接失败和健康检查失败次数").tags(tags).register(registry);
+        }
+        FunctionCounter.builder("minio.client.retries", retries, AtomicLong::get)
+                .description("可重试错误的重试次数").register(registry);
+        FunctionCounter.builder("minio.client.circuit.rejections", circuitRejections, AtomicLong::get)
+                .description("所有节点熔断时直接拒绝的请求数").register(registry);
+        if (hedger != null) {
+            hedger.bindTo(registry);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+    }
+
+    private Endpoint select(List<Endpoint> excluded) {
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.healthy && !excluded.contains(endpoint) && endpoint.breaker.isAvailable()) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // 没有健康节点时在未尝试过且未熔断的节点中选择，避免全部摘除后完全不可用
+            for (Endpoint endpoint : endpoints) {
+                if (!excluded.contains(endpoint) && endpoint.breaker.isAvailable()) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        // 从随机位置开始比较，分数相同时请求均匀分布
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        Endpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < candidates.size(); i++) {
+            Endpoint endpoint = candidates.get((offset + i) % candidates.size());
+            double score = score(endpoint);
+            if (score < bestScore) {
+                best = endpoint;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private double score(Endpoint endpoint) {
+        int outstanding = endpoint.outstanding.get();
+        if (strategy == Strategy.LEAST_OUTSTANDING) {
+            return outstanding;
+        }
+        // 没有延迟数据的节点按 1ms 计，尽快获得样本
+        double ewma = endpoint.ewmaNanos > 0 ? endpoint.ewmaNanos : 1_000_000;
+        return ewma * (outstanding + 1);
+    }
+
+    private void probeAll() {
+        for (Endpoint endpoint : endpoints) {
+            Thread.ofVirtual().name("minio-health-check-probe").start(() -> probe(endpoint));
+        }
+    }
+
+    /**
+     * 立即检查所有节点，返回每个节点是否可用和检查耗时，结果同时计入节点的健康状态
+     */
+    public List<Map<String, Object>> checkHealth() {
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+            Thread.ofVirtual().name("minio-health-check-probe").start(() -> {
+                long start = System.nanoTime();
+                String error = probe(endpoint);
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("endpoint", endpoint.url);
+                result.put("up", error == null);
+                result.put("latencyMillis", (System.nanoTime() - start) / 1_000_000.0);
+                if (error != null) {
+                    result.put("error", error);
+                }
+                future.complete(result);
+            });
+            futures.add(future);
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    // 检查 /minio/health/live，成功返回 null，失败返回错误信息
+    private String probe(Endpoint endpoint) {
+        Request request = new Request.Builder()
+                .url(endpoint.url.replaceAll("/+$", "") + "/minio/health/live")
+                .get()
+                .build();
+        try (Response response = probeClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                IllegalStateException error = new IllegalStateException("HTTP " + response.code());
+                markFailure(endpoint, error);
+                return error.getMessage();
+            }
+        } catch (Exception e) {
+            markFailure(endpoint, e);
+            return e.toString();
+        }
+        endpoint.consecutiveFailures.set(0);
+        if (!endpoint.healthy && endpoint.consecutiveSuccesses.incrementAndGet() >= successThreshold) {
+            endpoint.healthy = true;
+            logger.info("MinIO节点恢复: {}", endpoint.url);
+        }
+        return null;
+    }
+
+    private void markFailure(Endpoint endpoint, Exception e) {
+        endpoint.failures.incrementAndGet();
+        logger.debug("MinIO节点请求失败: endpoint={}, error={}", endpoint.url, e.toString());
+        endpoint.consecutiveSuccesses.set(0);
+        if (endpoint.consecutiveFailures.incrementAndGet() >= failureThreshold && endpoint.healthy
+                && endpoints.size() > 1) {
+            endpoint.healthy = false;
+            endpoint.ejections.incrementAndGet();
+            logger.warn("MinIO节点已摘除: endpoint={}, error={}", endpoint.url, e.toString());
+        }
+    }
+
+    // 连接阶段的失败：请求没有到达服务端，可以安全地换节点重试
+    private static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Endpoint {
+
+        private final String url;
+        private final MinioClient client;
+        private final RawS3Client rawClient;
+        private final CircuitBreaker breaker;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong ejections = new AtomicLong();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicInteger consecutiveSuccesses = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile double ewmaNanos;
+
+        private Endpoint(String url, MinioClient client, RawS3Client rawClient, CircuitBreaker breaker) {
+            this.url = url;
+            this.client = client;
+            this.rawClient = rawClient;
+            this.breaker = breaker;
+        }
+
+        // 延迟为发出请求到收到响应头的时间，下载的数据传输不计入
+        private void recordSuccess(long latencyNanos) {
+            requests.incrementAndGet();
+            consecutiveFailures.set(0);
+            double current = ewmaNanos;
+            ewmaNanos = current == 0 ? latencyNanos : current + EWMA_ALPHA * (latencyNanos - current);
+        }
+    }
+}
@@ -1,27 +1,183 @@
 package org.feiyue.config;
 
-import io.minio.MinioClient;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import io.minio.http.HttpUtils;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MinioConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(MinioConfig.class);
+
     @Value("${minio.endpoint}")
     private String endpoint;
 
+    // 多个MinIO节点地址，逗号分隔；未配置时只使用 minio.endpoint
+    @Value("${minio.endpoints:}")
+    private String[] endpoints;
+
+    // 节点选择策略：least-outstanding（未完成请求数最少）或 ewma（延迟加权）
+    @Value("${minio.routing.strategy:ewma}")
+    private String routingStrategy;
+
+    // 健康检查间隔和超时，0 表示不检查
+    @Value("${minio.routing.health-check.interval:5s}")
+    private Duration healthCheckInterval;
+
+    @Value("${minio.routing.health-check.timeout:2s}")
+    private Duration healthCheckTimeout;
+
+    // 连续失败多少次摘除节点，连续成功多少次恢复
+    @Value("${minio.routing.health-check.failure-threshold:2}")
+    private int failureThreshold;
+
+    @Value("${minio.routing.health-check.success-threshold:2}")
+    private int successThreshold;
+
+    // 读请求对冲：超过近期该百分位延迟仍未响应时再发一个请求，对冲次数不超过请求数的 budget-percent%
+    @Value("${minio.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${minio.hedging.percentile:95}")
+    private double hedgingPercentile;
+
+    @Value("${minio.hedging.min-delay:10ms}")
+    private Duration hedgingMinDelay;
+
+    @Value("${minio.hedging.budget-percent:5}")
+    private double hedgingBudgetPercent;
+
+    // 可重试错误（限流、5xx、网络中断）的最大尝试次数和指数退避时间
+    @Value("${minio.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${minio.retry.initial-backoff:100ms}")
+    private Duration retryInitialBackoff;
+
+    @Value("${minio.retry.max-backoff:2s}")
+    private Duration retryMaxBackoff;
+
+    // 单个节点连续失败多少次后熔断，以及熔断持续时间；阈值为 0 表示不熔断
+    @Value("${minio.circuit-breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${minio.circuit-breaker.open-duration:30s}")
+    private Duration breakerOpenDuration;
+
     @Value("${minio.access-key}")
     private String accessKey;
 
     @Value("${minio.secret-key}")
     private String secretKey;
 
+    // 连接池中保留的最大空闲连接数和空闲连接存活时间
+    @Value("${minio.http.max-idle-connections:64}")
+    private int maxIdleConnections;
+
+    @Value("${minio.http.keep-alive:5m}")
+    private Duration keepAlive;
+
+    // SDK 的请求经 OkHttp Dispatcher 异步执行，这里限制总并发数和单个MinIO节点的并发数
+    @Value("${minio.http.max-requests:256}")
+    private int maxRequests;
+
+    @Value("${minio.http.max-requests-per-host:64}")
+    private int maxRequestsPerHost;
+
+    @Value("${minio.http.connect-timeout:10s}")
+    private Duration connectTimeout;
+
+    @Value("${minio.http.read-timeout:5m}")
+    private Duration readTimeout;
+
+    @Value("${minio.http.write-timeout:5m}")
+    private Duration writeTimeout;
+
+    // 是否启用 HTTP/2，仅对 https 地址生效（通过 ALPN 协商，不支持时回退 HTTP/1.1）
+    @Value("${minio.http.http2:false}")
+    private boolean http2;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean
-    public MinioClient minioClient() {
-        return MinioClient.builder()
-                .endpoint(endpoint)
-                .credentials(accessKey, secretKey)
+    public OkHttpClient minioHttpClient() {
+        Dispatcher dispatcher = virtualThreads
+                ? new Dispatcher(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("minio-http-", 0).factory()))
+                : new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        boolean https = endpointUrls().stream().allMatch(url -> url.toLowerCase().startsWith("https://"));
+        if (http2 && !https) {
+            logger.warn("minio.http.http2 仅对 https 地址生效，当前地址 {} 继续使用 HTTP/1.1", endpointUrls());
+        }
+        List<Protocol> protocols = http2 && https
+                ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_1_1);
+
+        // 在 SDK 默认客户端的基础上调整，保留其对 SSL_CERT_FILE 的支持
+        OkHttpClient client = HttpUtils.newDefaultHttpClient(
+                        connectTimeout.toMillis(), writeTimeout.toMillis(), readTimeout.toMillis())
+                .newBuilder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(protocols)
                 .build();
+
+        logger.info("MinIO HTTP客户端: maxIdleConnections={}, keepAlive={}, maxRequests={}, maxRequestsPerHost={}, "
+                        + "connectTimeout={}, readTimeout={}, writeTimeout={}, protocols={}, virtualThreads={}",
+                maxIdleConnections, keepAlive, maxRequests, maxRequestsPerHost,
+                connectTimeout, readTimeout, writeTimeout, protocols, virtualThreads);
+        return client;
+    }
+
+    // 连接池的连接数和空闲连接数指标
+    @Bean
+    public OkHttpConnectionPoolMetrics minioConnectionPoolMetrics(OkHttpClient minioHttpClient) {
+        return new OkHttpConnectionPoolMetrics(minioHttpClient.connectionPool(), "minio.http.pool", Tags.empty());
+    }
+
+    @Bean
+    public MinioClientPool minioClientPool(OkHttpClient minioHttpClient) {
+        MinioClientPool.Strategy strategy =
+                MinioClientPool.Strategy.valueOf(routingStrategy.trim().toUpperCase().replace('-', '_'));
+        RequestHedger hedger = hedgingEnabled
+                ? new RequestHedger(hedgingPercentile, hedgingMinDelay, hedgingBudgetPercent)
+                : null;
+        return new MinioClientPool(endpointUrls(), accessKey, secretKey, minioHttpClient, strategy,
+                healthCheckInterval, healthCheckTimeout, failureThreshold, successThreshold, hedger,
+                new RetryPolicy(Math.max(1, retryMaxAttempts), retryInitialBackoff, retryMaxBackoff),
+                breakerFailureThreshold, breakerOpenDuration);
+    }
+
+    private List<String> endpointUrls() {
+        List<String> urls = new ArrayList<>();
+        if (endpoints != null) {
+            for (String url : endpoints) {
+                if (!url.isBlank()) {
+                    urls.add(url.trim());
+                }
+            }
+        }
+        if (urls.isEmpty()) {
+            urls.add(endpoint);
+        }
+        return urls;
     }
-}
\ No newline at end of file
+}
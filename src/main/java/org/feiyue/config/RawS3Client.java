@@ -0,0 +1,107 @@
+package org.feiyue.config;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.messages.ListBucketResultV2;
+import io.minio.messages.ListPartsResult;
+import io.minio.messages.Part;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * SDK 未公开的底层 S3 操作：分片上传、按页列出对象
+ * SDK 只在 putObject 内部使用 CreateMultipartUpload、UploadPart 等接口（protected），
+ * 这里公开为同步方法，使分片可以由不同请求分别上传，异常与 MinioClient 的同步方法一致。
+ * ListObjectsV2 同理：listObjects 把每页的对象和公共前缀分开返回，且不公开续列令牌，这里按页返回原始结果
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public class RawS3Client extends MinioAsyncClient {
+
+    // ListParts 每页的最大分片数
+    private static final int MAX_PARTS_PER_PAGE = 1000;
+
+    RawS3Client(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * 创建分片上传，返回 uploadId
+     */
+    public String initiateUpload(String bucketName, String objectName, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null && !contentType.isBlank()) {
+            headers.put("Content-Type", contentType);
+        }
+        return await(createMultipartUploadAsync(bucketName, null, objectName, headers, null))
+                .result().uploadId();
+    }
+
+    /**
+     * 上传一个分片，返回分片的 ETag；同一分片号重复上传时后一次覆盖前一次。
+     * SDK 会把分片读入内存计算校验值，内存占用为分片大小
+     */
+    public String uploadPart(String bucketName, String objectName, String uploadId, int partNumber,
+                             InputStream data, long length) throws Exception {
+        return await(uploadPartAsync(bucketName, null, objectName, data, length, uploadId, partNumber, null, null))
+                .etag();
+    }
+
+    /**
+     * 已上传的全部分片，按分片号排序
+     */
+    public List<Part> listParts(String bucketName, String objectName, String uploadId) throws Exception {
+        List<Part> parts = new ArrayList<>();
+        int marker = 0;
+        while (true) {
+            ListPartsResult result = await(listPartsAsync(bucketName, null, objectName, MAX_PARTS_PER_PAGE,
+                    marker, uploadId, null, null)).result();
+            parts.addAll(result.partList());
+            if (!result.isTruncated()) {
+                return parts;
+            }
+            marker = result.nextPartNumberMarker();
+        }
+    }
+
+    /**
+     * 按分片号顺序合并分片，返回对象的 ETag（不含引号，与 statObject 一致）
+     */
+    public String completeUpload(String bucketName, String objectName, String uploadId,
+                                 List<Part> parts) throws Exception {
+        String etag = await(completeMultipartUploadAsync(bucketName, null, objectName, uploadId,
+                parts.toArray(new Part[0]), null, null)).etag();
+        return etag == null ? null : etag.replace("\"", "");
+    }
+
+    /**
+     * 放弃分片上传，已上传的分片由MinIO删除
+     */
+    public void abortUpload(String bucketName, String objectName, String uploadId) throws Exception {
+        await(abortMultipartUploadAsync(bucketName, null, objectName, uploadId, null, null));
+    }
+
+    /**
+     * ListObjectsV2 的一页，continuationToken 不为空时从该令牌继续（startAfter 被忽略）
+     */
+    public ListBucketResultV2 listObjectsPage(String bucketName, String prefix, String delimiter, String startAfter,
+                                              String continuationToken, int maxKeys) throws Exception {
+        return await(listObjectsV2Async(bucketName, null, delimiter, null, startAfter, maxKeys, prefix,
+                continuationToken, false, false, null, null)).result();
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throwEncapsulatedException(e);
+            throw e;
+        }
+    }
+}
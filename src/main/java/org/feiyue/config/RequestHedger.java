@@ -0,0 +1,165 @@
+package org.feiyue.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 请求对冲策略
+ * 按操作类型记录最近的响应延迟，请求超过指定百分位延迟仍未响应时允许再发一个请求；
+ * 对冲次数受预算限制：每个请求积累 budgetPercent% 个令牌，每次对冲消耗一个
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class RequestHedger {
+
+    // 每种操作保留的最近延迟样本数
+    private static final int WINDOW_SIZE = 1000;
+
+    // 样本数达到该值前不对冲
+    private static final int MIN_SAMPLES = 50;
+
+    // 每积累多少个新样本重新计算一次百分位
+    private static final int RECOMPUTE_INTERVAL = 50;
+
+    // 令牌上限，允许短时间内集中对冲
+    private static final double MAX_TOKENS = 10;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double tokensPerRequest;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    private final ReentrantLock budgetLock = new ReentrantLock();
+    private double tokens;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedged = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+
+    RequestHedger(double percentile, Duration minDelay, double budgetPercent) {
+        this.percentile = Math.min(Math.max(percentile, 1), 99.9);
+        this.minDelayNanos = minDelay.toNanos();
+        this.tokensPerRequest = Math.max(0, budgetPercent) / 100;
+    }
+
+    /**
+     * 对冲前的等待时间，样本不足时返回 -1 表示不对冲；同时为对冲预算积累令牌
+     */
+    long delayNanos(String operation) {
+        requests.incrementAndGet();
+        budgetLock.lock();
+        try {
+            tokens = Math.min(MAX_TOKENS, tokens + tokensPerRequest);
+        } finally {
+            budgetLock.unlock();
+        }
+        long delay = windows.computeIfAbsent(operation, key -> new LatencyWindow()).percentileNanos(percentile);
+        return delay < 0 ? -1 : Math.max(delay, minDelayNanos);
+    }
+
+    /**
+     * 尝试消耗一个令牌发起对冲请求
+     */
+    boolean tryAcquire() {
+        budgetLock.lock();
+        try {
+            if (tokens >= 1) {
+                tokens -= 1;
+                hedged.incrementAndGet();
+                return true;
+            }
+        } finally {
+            budgetLock.unlock();
+        }
+        budgetExhausted.incrementAndGet();
+        return false;
+    }
+
+    void record(String operation, long latencyNanos) {
+        windows.computeIfAbsent(operation, key -> new LatencyWindow()).add(latencyNanos);
+    }
+
+    void recordHedgeWin() {
+        hedgeWins.incrementAndGet();
+    }
+
+    void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("minio.client.hedged", hedged, AtomicLong::get)
+                .description("发出的对冲请求数").register(registry);
+        FunctionCounter.builder("minio.client.hedge.wins", hedgeWins, AtomicLong::get)
+                .description("对冲请求先于原请求响应的次数").register(registry);
+        FunctionCounter.builder("minio.client.hedge.budget.exhausted", budgetExhausted, AtomicLong::get)
+                .description("因预算不足未发出的对冲请求数").register(registry);
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", true);
+        stats.put("percentile", percentile);
+        stats.put("requests", requests.get());
+        stats.put("hedged", hedged.get());
+        stats.put("hedgeWins", hedgeWins.get());
+        stats.put("budgetExhausted", budgetExhausted.get());
+        Map<String, Object> delays = new LinkedHashMap<>();
+        windows.forEach((operation, window) -> {
+            long delay = window.percentileNanos(percentile);
+            delays.put(operation, delay < 0 ? null : Math.max(delay, minDelayNanos) / 1_000_000.0);
+        });
+        stats.put("delayMillis", delays);
+        return stats;
+    }
+
+    /**
+     * 最近 WINDOW_SIZE 个延迟样本的环形缓冲区
+     */
+    private static final class LatencyWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private final ReentrantLock lock = new ReentrantLock();
+        private int count;
+        private int next;
+        private int sinceRecompute;
+        private long cachedNanos = -1;
+
+        void add(long latencyNanos) {
+            lock.lock();
+            try {
+                samples[next] = latencyNanos;
+                next = (next + 1) % WINDOW_SIZE;
+                count = Math.min(count + 1, WINDOW_SIZE);
+                sinceRecompute++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long percentileNanos(double percentile) {
+            lock.lock();
+            try {
+                if (count < MIN_SAMPLES) {
+                    return -1;
+                }
+                if (cachedNanos < 0 || sinceRecompute >= RECOMPUTE_INTERVAL) {
+                    long[] sorted = Arrays.copyOf(samples, count);
+                    Arrays.sort(sorted);
+                    int index = (int) Math.ceil(percentile / 100 * count) - 1;
+                    cachedNanos = sorted[Math.max(0, Math.min(index, count - 1))];
+                    sinceRecompute = 0;
+                }
+                return cachedNanos;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.feiyue.config;
+
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.ServerException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 重试策略
+ * 区分可重试的错误（限流、服务暂不可用、5xx、网络中断）和不可重试的错误（对象不存在、权限不足等），
+ * 可重试的错误按带随机抖动的指数退避等待后重试
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+record RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+
+    // MinIO / S3 返回的可重试错误码
+    private static final Set<String> RETRYABLE_CODES = Set.of(
+            "SlowDown", "SlowDownRead", "SlowDownWrite", "ServiceUnavailable", "InternalError",
+            "RequestTimeout", "XMinioServerNotInitialized", "XMinioReadQuorum",
+            "XMinioWriteQuorum");
+
+    /**
+     * 是否为可重试的错误
+     */
+    static boolean isRetryable(Throwable e) {
+        if (e instanceof ErrorResponseException error) {
+            String code = error.errorResponse() == null ? null : error.errorResponse().code();
+            int status = error.response() == null ? 0 : error.response().code();
+            return RETRYABLE_CODES.contains(code) || status == 429 || status >= 500;
+        }
+        if (e instanceof ServerException error) {
+            return error.statusCode() == 429 || error.statusCode() >= 500;
+        }
+        return e instanceof IOException;
+    }
+
+    /**
+     * 第 attempt 次重试前的等待时间：在 [0, min(maxBackoff, initialBackoff * 2^(attempt-1))] 中随机选取
+     */
+    long backoffMillis(int attempt) {
+        long cap = maxBackoff.toMillis();
+        long base = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        long bound = Math.max(1, Math.min(cap, base));
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+}
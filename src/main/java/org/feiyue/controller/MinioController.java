@@ -1,37 +1,174 @@
 package org.feiyue.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.GetObjectResponse;
 import io.minio.StatObjectResponse;
-import io.minio.GetObjectArgs;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.WebUtils;
 
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.feiyue.service.BatchUploadItem;
+import org.feiyue.service.BatchUploadResult;
+import org.feiyue.service.BulkDeleteResult;
+import org.feiyue.service.DeduplicatedUpload;
+import org.feiyue.service.ObjectListing;
+import org.feiyue.service.MinioMetrics;
 import org.feiyue.service.MinioService;
+import org.feiyue.service.ObjectKey;
+import org.feiyue.service.PresignedRequest;
 import org.feiyue.exception.MinioException;
 
 @RestController
 @RequestMapping("/minio")
 public class MinioController {
 
+    // 起始位置确定的单段范围，如 bytes=100-199 或 bytes=100-
+    private static final Pattern SINGLE_RANGE_PATTERN = Pattern.compile("^bytes=(\\d+)-(\\d*)$");
+
+    // 单个 ETag，如 "abc" 或 W/"abc"
+    private static final Pattern SINGLE_ETAG_PATTERN = Pattern.compile("^(W/)?\"[^\",]*\"$");
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    // 流式上传读取请求体的缓冲区大小
+    private static final int STREAMING_BUFFER_SIZE = 64 * 1024;
+
+    // 流式上传中普通表单字段的最大长度
+    private static final int MAX_FIELD_SIZE = 64 * 1024;
+
     private final MinioService minioService;
-    private final io.minio.MinioClient minioClient;
+    private final ObjectMapper objectMapper;
+    private final OkHttpClient minioHttpClient;
+    private final MinioMetrics metrics;
 
-    public MinioController(MinioService minioService, io.minio.MinioClient minioClient) {
+    // 下载和文件信息响应的 Cache-Control，默认要求客户端每次用 ETag 重新验证
+    @Value("${minio.download.cache-control:no-cache}")
+    private String cacheControl;
+
+    // 上传、批量上传和下载到本地等异步接口的超时时间，0 表示不超时
+    @Value("${minio.async.timeout:10m}")
+    private Duration asyncTimeout;
+
+    // /upload 是否边接收边上传
+    @Value("${minio.upload.streaming:true}")
+    private boolean streamingUpload;
+
+    // 流式上传时沿用 multipart 的单文件大小限制，-1 表示不限制
+    @Value("${spring.servlet.multipart.max-file-size:1MB}")
+    private DataSize maxFileSize;
+
+    public MinioController(MinioService minioService, ObjectMapper objectMapper, OkHttpClient minioHttpClient,
+                           MinioMetrics metrics) {
         this.minioService = minioService;
-        this.minioClient = minioClient;
+        this.objectMapper = objectMapper;
+        this.minioHttpClient = minioHttpClient;
+        this.metrics = metrics;
     }
 
-    // 健康检查接口
+    // 健康检查接口：实际检查每个MinIO节点，至少一个节点可用时返回 UP
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
+        long start = System.nanoTime();
+        List<Map<String, Object>> endpoints = minioService.checkHealth();
+        double probeMillis = (System.nanoTime() - start) / 1_000_000.0;
+        boolean up = endpoints.stream().anyMatch(endpoint -> Boolean.TRUE.equals(endpoint.get("up")));
+
         Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "MinIO服务正常运行");
+        response.put("success", up);
+        response.put("message", up ? "MinIO服务正常运行" : "MinIO服务不可用");
         response.put("timestamp", System.currentTimeMillis());
-        response.put("status", "UP");
+        response.put("status", up ? "UP" : "DOWN");
+        response.put("probeMillis", probeMillis);
+        response.put("endpoints", endpoints);
+        return ResponseEntity.status(up ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    // 缓存统计接口
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "获取缓存统计成功");
+        response.put("data", Map.of(
+            "metadata", minioService.getMetadataCacheStats(),
+            "local", minioService.getLocalCacheStats()
+        ));
+        return ResponseEntity.ok(response);
+    }
+
+    // MinIO HTTP客户端的实际配置和连接池、请求队列状态
+    @GetMapping("/http/stats")
+    public ResponseEntity<Map<String, Object>> httpStats() {
+        Dispatcher dispatcher = minioHttpClient.dispatcher();
+        ConnectionPool connectionPool = minioHttpClient.connectionPool();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("protocols", minioHttpClient.protocols().stream().map(Protocol::toString).toList());
+        data.put("connectTimeoutMillis", minioHttpClient.connectTimeoutMillis());
+        data.put("readTimeoutMillis", minioHttpClient.readTimeoutMillis());
+        data.put("writeTimeoutMillis", minioHttpClient.writeTimeoutMillis());
+        data.put("maxRequests", dispatcher.getMaxRequests());
+        data.put("maxRequestsPerHost", dispatcher.getMaxRequestsPerHost());
+        data.put("runningCalls", dispatcher.runningCallsCount());
+        data.put("queuedCalls", dispatcher.queuedCallsCount());
+        data.put("connections", connectionPool.connectionCount());
+        data.put("idleConnections", connectionPool.idleConnectionCount());
+        data.put("endpoints", minioService.getEndpointStats());
+        data.put("retry", minioService.getRetryStats());
+        data.put("hedging", minioService.getHedgingStats());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "获取HTTP客户端状态成功");
+        response.put("data", data);
         return ResponseEntity.ok(response);
     }
 
@@ -62,35 +199,560 @@ public class MinioController {
         }
     }
 
-    // 上传接口，接收 MultipartFile
+    // 上传接口：表单字段 file、bucketName、objectName
+    // 流式上传（minio.upload.streaming）时按顺序读取请求体，bucketName、objectName 在 file 之前提交（或放在查询参数中）时
+    // 文件内容边接收边上传到MinIO，不缓存到内存或临时文件；在 file 之后提交时先把文件写入临时文件，读完字段再上传。
+    // 关闭时由 Spring 先把文件接收完再上传。
+    // 流式上传时可在 file 之前提交 sha256，已有相同内容时不再上传文件内容
     @PostMapping("/upload")
-    public ResponseEntity<Map<String, Object>> upload(@RequestParam("file") MultipartFile file,
-                                                      @RequestParam("bucketName") String bucketName,
-                                                      @RequestParam("objectName") String objectName) {
+    public WebAsyncTask<ResponseEntity<Map<String, Object>>> upload(HttpServletRequest request) {
+        if (streamingUpload) {
+            return async(() -> doStreamingUpload(request));
+        }
+        // multipart 请求延迟解析（spring.servlet.multipart.resolve-lazily），这里访问文件时才解析
+        MultipartHttpServletRequest multipartRequest = WebUtils.getNativeRequest(request, MultipartHttpServletRequest.class);
+        MultipartFile file = multipartRequest == null ? null : multipartRequest.getFile("file");
+        if (file == null) {
+            throw MinioException.invalidArgument("file", "缺少上传的文件");
+        }
+        String bucketName = requiredField(request.getParameter("bucketName"), "bucketName");
+        String objectName = requiredField(request.getParameter("objectName"), "objectName");
+        return async(() -> doUpload(file, bucketName, objectName));
+    }
+
+    private ResponseEntity<Map<String, Object>> doUpload(MultipartFile file, String bucketName, String objectName) {
         try (InputStream inputStream = file.getInputStream()) {
-            String result = minioService.uploadFile(bucketName, objectName, inputStream);
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", result);
-            response.put("data", Map.of(
-                "bucketName", bucketName,
-                "objectName", objectName,
-                "fileName", file.getOriginalFilename(),
-                "fileSize", file.getSize()
-            ));
-            return ResponseEntity.ok(response);
+            // 传入文件大小和类型，由服务层决定分片大小
+            String result = minioService.uploadFile(bucketName, objectName, inputStream,
+                    file.getSize(), file.getContentType());
+            return uploadResponse(result, bucketName, objectName, file.getOriginalFilename(), file.getSize());
+        } catch (MinioException e) {
+            // MinIO不可用等已分类的异常直接交给全局异常处理器
+            throw e;
         } catch (Exception e) {
             // 异常会被全局异常处理器捕获并处理
             throw MinioException.uploadFailed(file.getOriginalFilename(), e);
         }
     }
 
+    // 流式上传：不能调用 getParameter，容器会因此把整个请求体解析为表单，查询参数直接从查询字符串中解析
+    private ResponseEntity<Map<String, Object>> doStreamingUpload(HttpServletRequest request) throws IOException {
+        String boundary = MultipartStreamReader.boundaryOf(request.getContentType());
+        if (boundary == null) {
+            throw MinioException.invalidArgument("Content-Type", "请求体必须是 multipart/form-data");
+        }
+        Map<String, String> fields = queryParameters(request.getQueryString());
+        SpooledFile spooled = null;
+        try (InputStream body = request.getInputStream()) {
+            MultipartStreamReader reader = new MultipartStreamReader(body, boundary, STREAMING_BUFFER_SIZE);
+            ResponseEntity<Map<String, Object>> response = null;
+            MultipartStreamReader.Part part;
+            while ((part = reader.next()) != null) {
+                if (part.fileName() == null) {
+                    fields.put(part.name(), readField(part));
+                } else if ("file".equals(part.name()) && response == null && spooled == null) {
+                    if (hasValue(fields, "bucketName") && hasValue(fields, "objectName")) {
+                        response = uploadPart(part, fields);
+                    } else {
+                        // 字段在文件之后提交（普通表单的顺序不固定），先保存文件，读完其余字段再上传
+                        spooled = spool(part);
+                    }
+                }
+                // 其他文件字段由 next() 跳过
+            }
+            if (spooled != null) {
+                response = uploadSpooled(spooled, fields);
+            }
+            if (response == null) {
+                throw MinioException.invalidArgument("file", "缺少上传的文件");
+            }
+            return response;
+        } catch (MultipartStreamReader.MalformedMultipartException e) {
+            throw MinioException.invalidArgument("file", e.getMessage());
+        } finally {
+            if (spooled != null) {
+                Files.deleteIfExists(spooled.path());
+            }
+        }
+    }
+
+    // 写入临时文件的文件部分
+    private record SpooledFile(Path path, String fileName, String contentType, long size) {
+    }
+
+    private SpooledFile spool(MultipartStreamReader.Part part) throws IOException {
+        long maxSize = maxFileSize.toBytes();
+        CountingInputStream counting = new CountingInputStream(part.body(), maxSize < 0 ? Long.MAX_VALUE : maxSize);
+        Path temp = Files.createTempFile("minio-upload-", ".part");
+        try {
+            Files.copy(counting, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            checkReadFailure(counting, part.fileName(), maxSize);
+            throw e;
+        }
+        return new SpooledFile(temp, part.fileName(), part.contentType(), counting.count);
+    }
+
+    private ResponseEntity<Map<String, Object>> uploadSpooled(SpooledFile spooled, Map<String, String> fields) {
+        String bucketName = requiredField(fields.get("bucketName"), "bucketName");
+        String objectName = requiredField(fields.get("objectName"), "objectName");
+        DeduplicatedUpload deduplicated = uploadByHash(fields, bucketName, objectName, spooled.contentType());
+        if (deduplicated != null) {
+            return deduplicatedResponse(deduplicated, spooled.fileName());
+        }
+        try (InputStream inputStream = Files.newInputStream(spooled.path())) {
+            String result = minioService.uploadFile(bucketName, objectName, inputStream,
+                    spooled.size(), spooled.contentType());
+            return uploadResponse(result, bucketName, objectName, spooled.fileName(), spooled.size());
+        } catch (MinioException e) {
+            throw e;
+        } catch (Exception e) {
+            throw MinioException.uploadFailed(spooled.fileName(), e);
+        }
+    }
+
+    // 提交了 sha256 且已有相同内容时在服务端复制，返回 null 表示需要上传文件内容
+    private DeduplicatedUpload uploadByHash(Map<String, String> fields, String bucketName, String objectName,
+                                            String contentType) {
+        String sha256 = fields.get("sha256");
+        if (sha256 == null || sha256.isEmpty()) {
+            return null;
+        }
+        return minioService.uploadByHash(bucketName, objectName, sha256, contentType);
+    }
+
+    private static boolean hasValue(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value != null && !value.isEmpty();
+    }
+
+    // 把文件部分直接传给MinIO，长度未知，服务层每次只缓冲一个分片
+    private ResponseEntity<Map<String, Object>> uploadPart(MultipartStreamReader.Part part, Map<String, String> fields) {
+        String bucketName = fields.get("bucketName");
+        String objectName = fields.get("objectName");
+        DeduplicatedUpload deduplicated = uploadByHash(fields, bucketName, objectName, part.contentType());
+        if (deduplicated != null) {
+            // 文件内容不再上传到MinIO，由 next() 跳过
+            return deduplicatedResponse(deduplicated, part.fileName());
+        }
+        long maxSize = maxFileSize.toBytes();
+        CountingInputStream counting = new CountingInputStream(part.body(), maxSize < 0 ? Long.MAX_VALUE : maxSize);
+        String result;
+        try {
+            result = minioService.uploadFile(bucketName, objectName, counting, -1, part.contentType());
+        } catch (MinioException e) {
+            checkReadFailure(counting, part.fileName(), maxSize);
+            throw e;
+        }
+        // 长度未知时 SDK 会放弃分片上传，但读取请求体失败的异常有时不会抛出，因此以读取结果为准
+        checkReadFailure(counting, part.fileName(), maxSize);
+        return uploadResponse(result, bucketName, objectName, part.fileName(), counting.count);
+    }
+
+    private static void checkReadFailure(CountingInputStream counting, String fileName, long maxSize) {
+        if (counting.exceeded) {
+            throw MinioException.fileSizeExceeded(fileName, counting.count, maxSize);
+        }
+        if (counting.failure instanceof MultipartStreamReader.MalformedMultipartException) {
+            throw MinioException.invalidArgument("file", counting.failure.getMessage());
+        }
+        if (counting.failure != null) {
+            throw MinioException.uploadFailed(fileName, counting.failure);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> deduplicatedResponse(DeduplicatedUpload upload, String fileName) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("bucketName", upload.bucketName());
+        data.put("objectName", upload.objectName());
+        data.put("fileName", fileName);
+        data.put("fileSize", upload.size());
+        data.put("sha256", upload.sha256());
+        data.put("deduplicated", true);
+        data.put("sourceObjectName", upload.sourceObjectName());
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "内容已存在，服务端复制完成");
+        response.put("data", data);
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> uploadResponse(String result, String bucketName, String objectName,
+                                                               String fileName, long fileSize) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", result);
+        response.put("data", Map.of(
+            "bucketName", bucketName,
+            "objectName", objectName,
+            "fileName", fileName,
+            "fileSize", fileSize
+        ));
+        return ResponseEntity.ok(response);
+    }
+
+    // 普通表单字段，长度不超过 MAX_FIELD_SIZE
+    static String readField(MultipartStreamReader.Part part) throws IOException {
+        byte[] value = part.body().readNBytes(MAX_FIELD_SIZE + 1);
+        if (value.length > MAX_FIELD_SIZE) {
+            throw MinioException.invalidArgument(part.name(), "表单字段超过 " + MAX_FIELD_SIZE + " 字节");
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> queryParameters(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            try {
+                params.putIfAbsent(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw MinioException.invalidArgument("query", "查询参数编码错误: " + pair);
+            }
+        }
+        return params;
+    }
+
+    private static String requiredField(String value, String name) {
+        if (value == null || value.isEmpty()) {
+            throw MinioException.invalidArgument(name, "缺少参数 " + name);
+        }
+        return value;
+    }
+
+    // 按内容哈希上传：Bucket中已有 SHA-256 相同的内容时在服务端复制，不需要上传文件（minio.dedup.enabled）；
+    // data.deduplicated 为 false 时再通过 /upload 上传，上传的内容会记录哈希供之后复用
+    @PostMapping("/upload/by-hash")
+    public ResponseEntity<Map<String, Object>> uploadByHash(@RequestParam("bucketName") String bucketName,
+                                                            @RequestParam("objectName") String objectName,
+                                                            @RequestParam("sha256") String sha256,
+                                                            @RequestParam(value = "contentType", required = false) String contentType) {
+        DeduplicatedUpload deduplicated = minioService.uploadByHash(bucketName, objectName, sha256, contentType);
+        if (deduplicated != null) {
+            return deduplicatedResponse(deduplicated, null);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "没有相同内容，请上传文件");
+        response.put("data", Map.of(
+            "bucketName", bucketName,
+            "objectName", objectName,
+            "sha256", sha256,
+            "deduplicated", false
+        ));
+        return ResponseEntity.ok(response);
+    }
+
+    // 批量上传接口，接收多个 MultipartFile，并发上传后返回每个文件的结果
+    // objectNames 可选，与 files 一一对应；未提供时使用 prefix + 原始文件名
+    @PostMapping("/upload/batch")
+    public WebAsyncTask<ResponseEntity<Map<String, Object>>> uploadBatch(@RequestParam("files") List<MultipartFile> files,
+                                                                         @RequestParam("bucketName") String bucketName,
+                                                                         @RequestParam(value = "objectNames", required = false) List<String> objectNames,
+                                                                         @RequestParam(value = "prefix", defaultValue = "") String prefix) {
+        if (objectNames != null && !objectNames.isEmpty() && objectNames.size() != files.size()) {
+            throw MinioException.invalidArgument("objectNames",
+                    "objectNames 数量与 files 数量不一致：files 共 " + files.size() + " 个，objectNames 共 "
+                            + objectNames.size() + " 个");
+        }
+        List<BatchUploadItem> items = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            // 没有原始文件名时对象名为空，该文件上传失败
+            String originalFilename = file.getOriginalFilename();
+            String objectName = objectNames != null && !objectNames.isEmpty()
+                    ? objectNames.get(i)
+                    : originalFilename == null || originalFilename.isBlank() ? null : prefix + originalFilename;
+            items.add(new BatchUploadItem(objectName, file.getOriginalFilename(), file.getSize(),
+                    file.getContentType(), file::getInputStream));
+        }
+        return async(() -> batchUploadResponse(bucketName, minioService.uploadFiles(bucketName, items)));
+    }
+
+    private ResponseEntity<Map<String, Object>> batchUploadResponse(String bucketName, List<BatchUploadResult> results) {
+        long succeeded = results.stream().filter(BatchUploadResult::success).count();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", succeeded == results.size());
+        response.put("message", "批量上传完成，成功 " + succeeded + " 个，失败 " + (results.size() - succeeded) + " 个");
+        response.put("data", Map.of(
+            "bucketName", bucketName,
+            "total", results.size(),
+            "succeeded", succeeded,
+            "failed", results.size() - succeeded,
+            "results", results
+        ));
+        return ResponseEntity.ok(response);
+    }
+
+    // 创建分块上传会话（断点续传），返回 sessionId 和建议的分块大小；totalSize 未知时可不传
+    @PostMapping("/upload/sessions")
+    public ResponseEntity<Map<String, Object>> startUploadSession(@RequestParam("bucketName") String bucketName,
+                                                                  @RequestParam("objectName") String objectName,
+                                                                  @RequestParam(value = "contentType", required = false) String contentType,
+                                                                  @RequestParam(value = "totalSize", defaultValue = "-1") long totalSize) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "创建上传会话成功");
+        response.put("data", minioService.startUploadSession(bucketName, objectName, contentType, totalSize));
+        return ResponseEntity.ok(response);
+    }
+
+    // 上传一个分块，请求体为分块内容（application/octet-stream，需要 Content-Length），编号从 1 开始；
+    // 分块可以并行、乱序上传，失败后重传同一编号即可
+    @PutMapping(value = "/upload/sessions/{sessionId}/chunks/{chunkNumber}",
+            consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public WebAsyncTask<ResponseEntity<Map<String, Object>>> uploadChunk(@PathVariable("sessionId") String sessionId,
+                                                                         @PathVariable("chunkNumber") int chunkNumber,
+                                                                         HttpServletRequest request) {
+        return async(() -> {
+            try (InputStream body = request.getInputStream()) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "分块上传成功");
+                response.put("data", minioService.uploadChunk(sessionId, chunkNumber, body,
+                        request.getContentLengthLong()));
+                return ResponseEntity.ok(response);
+            }
+        });
+    }
+
+    // 查询上传进度：已上传的分块编号、大小和总字节数
+    @GetMapping("/upload/sessions/{sessionId}")
+    public ResponseEntity<Map<String, Object>> getUploadSession(@PathVariable("sessionId") String sessionId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "获取上传进度成功");
+        response.put("data", minioService.getUploadSessionProgress(sessionId));
+        return ResponseEntity.ok(response);
+    }
+
+    // 完成上传，MinIO按编号合并分块；chunkCount 用于确认没有遗漏末尾的分块
+    @PostMapping("/upload/sessions/{sessionId}/complete")
+    public WebAsyncTask<ResponseEntity<Map<String, Object>>> completeUploadSession(
+            @PathVariable("sessionId") String sessionId,
+            @RequestParam(value = "chunkCount", required = false) Integer chunkCount) {
+        return async(() -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "上传完成");
+            response.put("data", minioService.completeUploadSession(sessionId, chunkCount));
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    // 放弃上传，已上传的分块由MinIO删除
+    @DeleteMapping("/upload/sessions/{sessionId}")
+    public ResponseEntity<Map<String, Object>> abortUploadSession(@PathVariable("sessionId") String sessionId) {
+        minioService.abortUploadSession(sessionId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "上传已放弃");
+        response.put("data", Map.of("sessionId", sessionId));
+        return ResponseEntity.ok(response);
+    }
+
+    // 批量查询文件信息接口：请求体为 JSON 数组或 NDJSON，每项包含 bucketName 和 objectName，
+    // 结果以 NDJSON 逐行返回（按完成顺序，index 对应请求中的位置），请求和结果都不会整体缓存在内存中
+    @PostMapping(value = "/stat/batch", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> statBatch(HttpServletRequest request) throws IOException {
+        InputStream body = request.getInputStream();
+        StreamingResponseBody stream = outputStream -> {
+            ReentrantLock writeLock = new ReentrantLock();
+            try (MappingIterator<ObjectKey> keys = objectMapper.readerFor(ObjectKey.class).readValues(body)) {
+                minioService.statObjects(keys, result -> {
+                    writeLock.lock();
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(result));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        writeLock.unlock();
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(stream);
+    }
+
+    // 列出对象接口：delimiter 为空时递归列出，否则按 delimiter 折叠为公共前缀（prefix 为 true）；
+    // 每次最多返回 pageSize 条（0 表示不分页），data.truncated 为 true 时把 data.continuationToken 传回继续列出。
+    // 结果边从MinIO逐页读取边写出，不在内存中保存整个列表
+    @GetMapping("/list")
+    public ResponseEntity<StreamingResponseBody> listObjects(@RequestParam("bucketName") String bucketName,
+                                                             @RequestParam(value = "prefix", defaultValue = "") String prefix,
+                                                             @RequestParam(value = "delimiter", defaultValue = "") String delimiter,
+                                                             @RequestParam(value = "startAfter", defaultValue = "") String startAfter,
+                                                             @RequestParam(value = "pageSize", defaultValue = "1000") int pageSize,
+                                                             @RequestParam(value = "continuationToken", required = false) String continuationToken) {
+        if (pageSize < 0) {
+            throw MinioException.invalidArgument("pageSize", "pageSize 不能小于 0");
+        }
+        ObjectListing objects = minioService.listObjects(bucketName, prefix, delimiter, startAfter,
+                continuationToken, pageSize);
+        // 先取第一页，Bucket不存在等错误在写出响应前以正常的错误响应返回
+        objects.hasNext();
+        StreamingResponseBody stream = outputStream -> {
+            try (JsonGenerator json = objectMapper.createGenerator(outputStream)) {
+                json.writeStartObject();
+                json.writeBooleanField("success", true);
+                json.writeStringField("message", "列出对象成功");
+                json.writeObjectFieldStart("data");
+                json.writeStringField("bucketName", bucketName);
+                json.writeStringField("prefix", prefix);
+                json.writeStringField("delimiter", delimiter);
+                json.writeArrayFieldStart("objects");
+                long count = 0;
+                while (objects.hasNext()) {
+                    json.writeObject(objects.next());
+                    count++;
+                }
+                json.writeEndArray();
+                String nextToken = objects.continuationToken();
+                json.writeNumberField("count", count);
+                json.writeBooleanField("truncated", nextToken != null);
+                json.writeStringField("continuationToken", nextToken);
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stream);
+    }
+
+    // 批量删除接口：prefix 不为空时删除该前缀下的全部对象，否则请求体为对象名的 JSON 数组或 NDJSON。
+    // 每 1000 个对象一次 DeleteObjects 请求，多批并行；结果边删除边写出，data.errors 为删除失败的对象及错误码，
+    // 最后是数量汇总和 success（没有失败的对象时为 true）。对象本来不存在也视为删除成功
+    @PostMapping("/delete/batch")
+    public ResponseEntity<StreamingResponseBody> deleteBatch(@RequestParam("bucketName") String bucketName,
+                                                             @RequestParam(value = "prefix", required = false) String prefix,
+                                                             HttpServletRequest request) throws IOException {
+        if (prefix != null && prefix.isEmpty()) {
+            throw MinioException.invalidArgument("prefix", "prefix 不能为空，不支持清空整个Bucket");
+        }
+        // 按前缀删除时先列出第一页，Bucket不存在等错误在写出响应前以正常的错误响应返回
+        Iterator<String> prefixedNames = prefix == null ? null : minioService.listObjectNames(bucketName, prefix);
+        InputStream body = request.getInputStream();
+        StreamingResponseBody stream = outputStream -> {
+            ReentrantLock writeLock = new ReentrantLock();
+            try (JsonGenerator json = objectMapper.createGenerator(outputStream);
+                 MappingIterator<String> requestedNames = prefix == null
+                         ? objectMapper.readerFor(String.class).readValues(body)
+                         : null) {
+                json.writeStartObject();
+                json.writeObjectFieldStart("data");
+                json.writeStringField("bucketName", bucketName);
+                json.writeStringField("prefix", prefix);
+                json.writeArrayFieldStart("errors");
+                BulkDeleteResult result = minioService.deleteObjects(bucketName,
+                        prefix == null ? requestedNames : prefixedNames, error -> {
+                            writeLock.lock();
+                            try {
+                                json.writeObject(error);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            } finally {
+                                writeLock.unlock();
+                            }
+                        });
+                json.writeEndArray();
+                json.writeNumberField("requested", result.requested());
+                json.writeNumberField("deleted", result.deleted());
+                json.writeNumberField("failed", result.failed());
+                json.writeEndObject();
+                json.writeBooleanField("success", result.failed() == 0);
+                json.writeStringField("message", result.failed() == 0 ? "批量删除成功" : "部分对象删除失败");
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stream);
+    }
+
+    // 预签名上传接口：返回有效期内可直接 PUT 到MinIO的URL，文件内容不经过本服务；contentType 不为空时参与签名
+    @PostMapping("/presign/upload")
+    public ResponseEntity<Map<String, Object>> presignUpload(@RequestParam("bucketName") String bucketName,
+                                                             @RequestParam("objectName") String objectName,
+                                                             @RequestParam(value = "expiry", required = false) String expiry,
+                                                             @RequestParam(value = "contentType", required = false) String contentType) {
+        return presignResponse("生成上传URL成功",
+                minioService.presignUpload(bucketName, objectName, parseExpiry(expiry), contentType));
+    }
+
+    // 预签名下载接口：返回可直接从MinIO GET 的URL，fileName 不为空时浏览器以该文件名保存
+    @PostMapping("/presign/download")
+    public ResponseEntity<Map<String, Object>> presignDownload(@RequestParam("bucketName") String bucketName,
+                                                               @RequestParam("objectName") String objectName,
+                                                               @RequestParam(value = "expiry", required = false) String expiry,
+                                                               @RequestParam(value = "fileName", required = false) String fileName) {
+        return presignResponse("生成下载URL成功",
+                minioService.presignDownload(bucketName, objectName, parseExpiry(expiry), fileName));
+    }
+
+    // 浏览器表单上传的POST策略：把 formData 中的字段和文件（字段名 file，放在最后）以 multipart/form-data 提交到 url
+    @PostMapping("/presign/post-policy")
+    public ResponseEntity<Map<String, Object>> presignPostPolicy(@RequestParam("bucketName") String bucketName,
+                                                                 @RequestParam("objectName") String objectName,
+                                                                 @RequestParam(value = "expiry", required = false) String expiry,
+                                                                 @RequestParam(value = "contentType", required = false) String contentType,
+                                                                 @RequestParam(value = "maxSize", required = false) String maxSize) {
+        DataSize sizeLimit;
+        try {
+            sizeLimit = maxSize == null || maxSize.isBlank() ? null : DataSize.parse(maxSize);
+        } catch (IllegalArgumentException e) {
+            throw MinioException.invalidArgument("maxSize", "无法解析大小：" + maxSize);
+        }
+        return presignResponse("生成POST策略成功", minioService.presignPostPolicy(bucketName, objectName,
+                parseExpiry(expiry), contentType, sizeLimit));
+    }
+
+    // 预签名URL相当于临时凭证，不允许缓存
+    private ResponseEntity<Map<String, Object>> presignResponse(String message, PresignedRequest presigned) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", message);
+        response.put("data", presigned);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(response);
+    }
+
+    // 有效期，如 900s、15m、1h；为空时使用 minio.presign.expiry
+    private static Duration parseExpiry(String expiry) {
+        if (expiry == null || expiry.isBlank()) {
+            return null;
+        }
+        try {
+            return DurationStyle.detectAndParse(expiry.trim());
+        } catch (IllegalArgumentException e) {
+            throw MinioException.invalidArgument("expiry", "无法解析有效期：" + expiry);
+        }
+    }
+
     // 获取文件信息接口
     @GetMapping("/fileInfo")
     public ResponseEntity<Map<String, Object>> getFileInfo(@RequestParam("bucketName") String bucketName,
-                                                           @RequestParam("objectName") String objectName) {
+                                                           @RequestParam("objectName") String objectName,
+                                                           ServletWebRequest webRequest) {
         try {
             StatObjectResponse fileInfo = minioService.getFileInfo(bucketName, objectName);
+            // 对象未变化时直接返回 304
+            if (checkNotModified(webRequest, fileInfo)) {
+                return null;
+            }
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "获取文件信息成功");
@@ -102,7 +764,12 @@ public class MinioController {
                 "etag", fileInfo.etag(),
                 "contentType", fileInfo.contentType()
             ));
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .headers(cacheHeaders(fileInfo))
+                    .body(response);
+        } catch (MinioException e) {
+            // MinIO不可用等已分类的异常直接交给全局异常处理器
+            throw e;
         } catch (Exception e) {
             // 异常会被全局异常处理器捕获并处理
             throw MinioException.fileNotFound(objectName);
@@ -111,9 +778,13 @@ public class MinioController {
 
     // 下载文件接口（这里示例是下载到本地指定路径，实际可根据需求调整返回，比如返回文件流给前端直接下载）
     @GetMapping("/download")
-    public ResponseEntity<Map<String, Object>> downloadFile(@RequestParam("bucketName") String bucketName,
-                                                            @RequestParam("objectName") String objectName,
-                                                            @RequestParam("localFilePath") String localFilePath) {
+    public WebAsyncTask<ResponseEntity<Map<String, Object>>> downloadFile(@RequestParam("bucketName") String bucketName,
+                                                                          @RequestParam("objectName") String objectName,
+                                                                          @RequestParam("localFilePath") String localFilePath) {
+        return async(() -> doDownloadFile(bucketName, objectName, localFilePath));
+    }
+
+    private ResponseEntity<Map<String, Object>> doDownloadFile(String bucketName, String objectName, String localFilePath) {
         try {
             String result = minioService.downloadFile(bucketName, objectName, localFilePath);
             Map<String, Object> response = new HashMap<>();
@@ -125,49 +796,480 @@ public class MinioController {
                 "localFilePath", localFilePath
             ));
             return ResponseEntity.ok(response);
+        } catch (MinioException e) {
+            // MinIO不可用等已分类的异常直接交给全局异常处理器
+            throw e;
         } catch (Exception e) {
             // 异常会被全局异常处理器捕获并处理
             throw MinioException.downloadFailed(objectName, e);
         }
     }
 
-    // 直接下载文件流接口（用于浏览器直接下载）
+    // 直接下载文件流接口（用于浏览器直接下载，支持 Range 断点续传和多段请求）
     @GetMapping("/download/stream")
-    public ResponseEntity<org.springframework.core.io.Resource> downloadFileStream(
+    public ResponseEntity<StreamingResponseBody> downloadFileStream(
             @RequestParam("bucketName") String bucketName,
-            @RequestParam("objectName") String objectName) {
+            @RequestParam("objectName") String objectName,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRangeHeader,
+            ServletWebRequest webRequest) {
         try {
-            // 获取文件信息
-            StatObjectResponse fileInfo = minioService.getFileInfo(bucketName, objectName);
-            
-            // 获取文件流杀杀杀
-            InputStream inputStream = minioClient.getObject(GetObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(objectName)
-                    .build());
-            
-            // 创建Resource
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.InputStreamResource(inputStream) {
-                @Override
-                public long contentLength() {
-                    return fileInfo.size();
-                }
-            };
-            
             // 设置文件名
             String fileName = objectName;
             if (objectName.contains("/")) {
                 fileName = objectName.substring(objectName.lastIndexOf("/") + 1);
             }
-            
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
-                    .header("Content-Type", fileInfo.contentType())
-                    .header("Content-Length", String.valueOf(fileInfo.size()))
-                    .body(resource);
-                    
+
+            // 开启本地缓存时，先用文件信息（通常命中内存缓存）判断本地是否已有当前版本
+            if (minioService.isLocalCacheEnabled()) {
+                return downloadThroughLocalCache(bucketName, objectName, fileName, rangeHeader, ifRangeHeader, webRequest);
+            }
+
+            // 常见请求（完整文件、起始位置确定的单段范围、单个 ETag 的条件请求）只需一次 getObject；
+            // 多段范围、后缀范围、If-Range 和多个 ETag 的条件请求需要先知道对象大小和版本
+            String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+            boolean singleRequest = (rangeHeader == null || SINGLE_RANGE_PATTERN.matcher(rangeHeader.trim()).matches())
+                    && ifRangeHeader == null
+                    && (ifNoneMatch == null || SINGLE_ETAG_PATTERN.matcher(ifNoneMatch.trim()).matches());
+            if (singleRequest) {
+                return downloadInSingleRequest(bucketName, objectName, fileName, rangeHeader, ifNoneMatch, webRequest);
+            }
+            return downloadWithFileInfo(bucketName, objectName, fileName, rangeHeader, ifRangeHeader, webRequest);
+
+        } catch (MinioException e) {
+            throw e;
         } catch (Exception e) {
             throw MinioException.downloadFailed(objectName, e);
         }
     }
-}
\ No newline at end of file
+
+    // 单次请求下载：条件和范围直接转发给MinIO，大小、类型和ETag取自 getObject 响应头
+    private ResponseEntity<StreamingResponseBody> downloadInSingleRequest(String bucketName, String objectName,
+                                                                          String fileName, String rangeHeader,
+                                                                          String ifNoneMatch, ServletWebRequest webRequest) {
+        long offset = 0;
+        long length = -1;
+        if (rangeHeader != null) {
+            Matcher matcher = SINGLE_RANGE_PATTERN.matcher(rangeHeader.trim());
+            if (matcher.matches()) {
+                offset = Long.parseLong(matcher.group(1));
+                if (!matcher.group(2).isEmpty()) {
+                    long last = Long.parseLong(matcher.group(2));
+                    if (last < offset) {
+                        // 格式错误的范围按规范忽略
+                        offset = 0;
+                    } else {
+                        length = last - offset + 1;
+                    }
+                }
+            }
+        }
+
+        // If-None-Match 优先于 If-Modified-Since
+        String notMatchETag = null;
+        ZonedDateTime modifiedSince = null;
+        if (ifNoneMatch != null) {
+            notMatchETag = ifNoneMatch.trim().replaceFirst("^W/", "").replace("\"", "");
+        } else {
+            modifiedSince = parseHttpDate(webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE));
+        }
+
+        GetObjectResponse object;
+        try {
+            object = minioService.openObject(bucketName, objectName, offset, length, notMatchETag, modifiedSince);
+        } catch (MinioException e) {
+            if (MinioException.RANGE_NOT_SATISFIABLE_ERROR_CODE.equals(e.getErrorCode())) {
+                return rangeNotSatisfiable(minioService.getFileInfo(bucketName, objectName).size());
+            }
+            throw e;
+        }
+
+        // 对象未变化，MinIO 返回 304，没有读取任何内容；304 响应同样要带上 ETag 和 Last-Modified，
+        // 取自文件信息（通常命中内存缓存），If-None-Match 命中时 ETag 回显请求中的值
+        if (object == null) {
+            HttpHeaders validators = cacheHeaders(minioService.getFileInfo(bucketName, objectName));
+            if (notMatchETag != null) {
+                validators.setETag("\"" + notMatchETag + "\"");
+            }
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(validators).build();
+        }
+
+        StatObjectResponse fileInfo = MinioService.fileInfoOf(object);
+        String contentRange = object.headers().get(HttpHeaders.CONTENT_RANGE);
+        ResponseEntity.BodyBuilder builder = (contentRange == null ? ResponseEntity.ok() : ResponseEntity.status(HttpStatus.PARTIAL_CONTENT))
+                .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .headers(cacheHeaders(fileInfo))
+                .header("Content-Type", fileInfo.contentType())
+                .header("Content-Length", String.valueOf(fileInfo.size()));
+        if (contentRange != null) {
+            builder.header(HttpHeaders.CONTENT_RANGE, contentRange);
+        }
+        return builder.body(streamOf(object));
+    }
+
+    // 本地缓存下载：命中时直接从磁盘返回，未命中的完整下载边返回边写入缓存，其余请求走 statObject 路径
+    private ResponseEntity<StreamingResponseBody> downloadThroughLocalCache(String bucketName, String objectName,
+                                                                            String fileName, String rangeHeader,
+                                                                            String ifRangeHeader,
+                                                                            ServletWebRequest webRequest) throws IOException {
+        StatObjectResponse fileInfo = minioService.getFileInfo(bucketName, objectName);
+        if (checkNotModified(webRequest, fileInfo)) {
+            return null;
+        }
+
+        // 缓存文件在查询时就已打开，之后被淘汰删除也不影响本次读取
+        FileChannel cached = minioService.openLocalCachedFile(bucketName, objectName, fileInfo.etag());
+        if (cached != null) {
+            try {
+                long cachedSize = cached.size();
+                List<HttpRange> ranges = matchesIfRange(ifRangeHeader, fileInfo) ? parseRanges(rangeHeader) : List.of();
+                if (!ranges.isEmpty() && !isSatisfiable(ranges, cachedSize)) {
+                    cached.close();
+                    return rangeNotSatisfiable(cachedSize);
+                }
+                ResponseEntity.BodyBuilder builder = (ranges.isEmpty() ? ResponseEntity.ok() : ResponseEntity.status(HttpStatus.PARTIAL_CONTENT))
+                        .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .headers(cacheHeaders(fileInfo, webRequest));
+                ResponseEntity<StreamingResponseBody> response = rangedBody(builder, fileInfo.contentType(), cachedSize,
+                        ranges, (offset, length) -> cachedRange(cached, offset, length));
+                return closeAfterBody(response, cached);
+            } catch (IOException | RuntimeException e) {
+                cached.close();
+                throw e;
+            }
+        }
+
+        if (rangeHeader == null) {
+            GetObjectResponse object = minioService.openObject(bucketName, objectName, 0, -1, null, null);
+            // 响应头取自实际读取到的版本，文件信息缓存过期时与 fileInfo 不同
+            StatObjectResponse actual = MinioService.fileInfoOf(object);
+            InputStream inputStream = minioService.readThroughLocalCache(object, fileInfo);
+            return ResponseEntity.ok()
+                    .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .headers(cacheHeaders(actual, webRequest))
+                    .header("Content-Type", actual.contentType())
+                    .header("Content-Length", String.valueOf(actual.size()))
+                    .body(streamOf(inputStream));
+        }
+        return downloadWithFileInfo(bucketName, objectName, fileName, rangeHeader, ifRangeHeader, webRequest);
+    }
+
+    // 先 statObject 再下载：用于需要对象大小或版本才能处理的范围和条件请求。
+    // 文件信息可能来自缓存，各范围按其 ETag 条件读取；打开时发现对象已被修改（缓存已失效）则用新的文件信息重新开始一次
+    private ResponseEntity<StreamingResponseBody> downloadWithFileInfo(String bucketName, String objectName,
+                                                                       String fileName, String rangeHeader,
+                                                                       String ifRangeHeader,
+                                                                       ServletWebRequest webRequest) throws IOException {
+        try {
+            return downloadWithFileInfoOnce(bucketName, objectName, fileName, rangeHeader, ifRangeHeader, webRequest);
+        } catch (MinioException e) {
+            if (!MinioException.OBJECT_CHANGED_ERROR_CODE.equals(e.getErrorCode())) {
+                throw e;
+            }
+            return downloadWithFileInfoOnce(bucketName, objectName, fileName, rangeHeader, ifRangeHeader, webRequest);
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> downloadWithFileInfoOnce(String bucketName, String objectName,
+                                                                           String fileName, String rangeHeader,
+                                                                           String ifRangeHeader,
+                                                                           ServletWebRequest webRequest) throws IOException {
+        // 获取文件信息
+        StatObjectResponse fileInfo = minioService.getFileInfo(bucketName, objectName);
+
+        // 条件请求命中时返回 304，不打开对象流
+        if (checkNotModified(webRequest, fileInfo)) {
+            return null;
+        }
+
+        long fileSize = fileInfo.size();
+        String contentType = fileInfo.contentType();
+
+        // 解析 Range 请求头，格式错误或 If-Range 与当前版本不一致时忽略并返回完整文件
+        List<HttpRange> ranges = matchesIfRange(ifRangeHeader, fileInfo) ? parseRanges(rangeHeader) : List.of();
+        if (!ranges.isEmpty() && !isSatisfiable(ranges, fileSize)) {
+            return rangeNotSatisfiable(fileSize);
+        }
+
+        ResponseEntity.BodyBuilder builder = (ranges.isEmpty() ? ResponseEntity.ok() : ResponseEntity.status(HttpStatus.PARTIAL_CONTENT))
+                .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .headers(cacheHeaders(fileInfo, webRequest));
+        // 每个范围只向MinIO请求该范围，且必须与 fileInfo 是同一版本
+        String etag = fileInfo.etag();
+        return rangedBody(builder, contentType, fileSize, ranges,
+                (offset, length) -> minioService.getObject(bucketName, objectName, offset, length, etag));
+    }
+
+    /**
+     * 按范围打开数据流，length 为 -1 表示读到末尾
+     */
+    @FunctionalInterface
+    private interface RangeSource {
+        InputStream open(long offset, long length) throws IOException;
+    }
+
+    // 按解析出的范围返回完整文件、单段范围或 multipart/byteranges
+    private ResponseEntity<StreamingResponseBody> rangedBody(ResponseEntity.BodyBuilder builder, String contentType,
+                                                             long fileSize, List<HttpRange> ranges,
+                                                             RangeSource source) throws IOException {
+        // 完整文件
+        if (ranges.isEmpty()) {
+            return builder
+                    .header("Content-Type", contentType)
+                    .header("Content-Length", String.valueOf(fileSize))
+                    .body(streamOf(source.open(0, -1)));
+        }
+
+        // 单段范围
+        if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(fileSize);
+            long end = ranges.get(0).getRangeEnd(fileSize);
+            return builder
+                    .header("Content-Type", contentType)
+                    .header("Content-Length", String.valueOf(end - start + 1))
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize)
+                    .body(streamOf(source.open(start, end - start + 1)));
+        }
+
+        // 多段范围：multipart/byteranges，每段单独打开；第一段在返回响应前打开，
+        // 对象已被修改等错误仍能以正常的错误响应返回（或重新开始下载）
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        long firstStart = ranges.get(0).getRangeStart(fileSize);
+        InputStream first = source.open(firstStart, ranges.get(0).getRangeEnd(fileSize) - firstStart + 1);
+        StreamingResponseBody body = outputStream ->
+                writeByteRanges(outputStream, first, source, contentType, fileSize, ranges, boundary);
+        return builder
+                .header("Content-Type", "multipart/byteranges; boundary=" + boundary)
+                .body(body);
+    }
+
+    // 本地缓存文件的指定范围，length 为 -1 表示读到末尾；按位置读取，各范围共用同一个通道，关闭时不关闭通道
+    private static InputStream cachedRange(FileChannel channel, long offset, long length) throws IOException {
+        long end = length < 0 ? channel.size() : offset + length;
+        return new InputStream() {
+            private long position = offset;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                if (position >= end) {
+                    return -1;
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, off, (int) Math.min(len, end - position)), position);
+                if (read < 0) {
+                    throw new EOFException("本地缓存文件提前结束: position=" + position);
+                }
+                position += read;
+                return read;
+            }
+        };
+    }
+
+    // 响应体写完（或写入失败）后关闭缓存文件
+    private static ResponseEntity<StreamingResponseBody> closeAfterBody(ResponseEntity<StreamingResponseBody> response,
+                                                                       FileChannel channel) {
+        StreamingResponseBody body = response.getBody();
+        StreamingResponseBody closing = outputStream -> {
+            try (channel) {
+                body.writeTo(outputStream);
+            }
+        };
+        return new ResponseEntity<>(closing, response.getHeaders(), response.getStatusCode());
+    }
+
+    // 在异步线程中把数据流写入响应，慢客户端不占用请求线程；记录传输耗时和字节数
+    private StreamingResponseBody streamOf(InputStream inputStream) {
+        return outputStream -> {
+            try (InputStream in = inputStream;
+                 MinioMetrics.Operation operation = metrics.start(MinioMetrics.STREAM)) {
+                metrics.addBytes(MinioMetrics.STREAM, in.transferTo(outputStream));
+                operation.succeeded();
+            }
+        };
+    }
+
+    // 耗时操作放到异步执行器中执行，使用 minio.async.timeout 作为超时时间
+    private <T> WebAsyncTask<T> async(Callable<T> callable) {
+        return new WebAsyncTask<>(asyncTimeout.toMillis(), callable);
+    }
+
+    private <T> ResponseEntity<T> rangeNotSatisfiable(long fileSize) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize)
+                .build();
+    }
+
+    // 处理 If-None-Match / If-Modified-Since，命中时响应已被设置为 304
+    private boolean checkNotModified(ServletWebRequest webRequest, StatObjectResponse fileInfo) {
+        if (webRequest.checkNotModified(fileInfo.etag(), lastModifiedMillis(fileInfo))) {
+            if (webRequest.getResponse() != null) {
+                // 重新查询文件信息后再次检查时，响应中可能已有旧版本的 ETag、Last-Modified
+                setValidators(webRequest.getResponse(), fileInfo);
+                webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // 响应中携带 ETag、Last-Modified 和 Cache-Control，供浏览器和CDN缓存复用
+    private HttpHeaders cacheHeaders(StatObjectResponse fileInfo) {
+        HttpHeaders headers = new HttpHeaders();
+        if (fileInfo.etag() != null && !fileInfo.etag().isEmpty()) {
+            headers.setETag("\"" + fileInfo.etag() + "\"");
+        }
+        long lastModified = lastModifiedMillis(fileInfo);
+        if (lastModified > 0) {
+            headers.setLastModified(lastModified);
+        }
+        headers.setCacheControl(cacheControl);
+        return headers;
+    }
+
+    // checkNotModified 之后的 StreamingResponseBody 响应：checkNotModified 已经把 ETag、Last-Modified 写入响应，
+    // 这里直接覆盖为 fileInfo 的值，返回的头中只有 Cache-Control，避免响应中出现两份 ETag、Last-Modified
+    private HttpHeaders cacheHeaders(StatObjectResponse fileInfo, ServletWebRequest webRequest) {
+        HttpServletResponse response = webRequest.getResponse();
+        if (response == null) {
+            return cacheHeaders(fileInfo);
+        }
+        setValidators(response, fileInfo);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(cacheControl);
+        return headers;
+    }
+
+    private void setValidators(HttpServletResponse response, StatObjectResponse fileInfo) {
+        if (fileInfo.etag() != null && !fileInfo.etag().isEmpty()) {
+            response.setHeader(HttpHeaders.ETAG, "\"" + fileInfo.etag() + "\"");
+        }
+        long lastModified = lastModifiedMillis(fileInfo);
+        if (lastModified > 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+    }
+
+    private long lastModifiedMillis(StatObjectResponse fileInfo) {
+        return fileInfo.lastModified() != null ? fileInfo.lastModified().toInstant().toEpochMilli() : -1;
+    }
+
+    // If-Range 可以是 ETag 或 HTTP 日期，只有与当前对象一致时 Range 才生效
+    private boolean matchesIfRange(String ifRangeHeader, StatObjectResponse fileInfo) {
+        if (ifRangeHeader == null || ifRangeHeader.isBlank()) {
+            return true;
+        }
+        String value = ifRangeHeader.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // 弱校验的 ETag 不能用于 If-Range
+            return value.equals("\"" + fileInfo.etag() + "\"");
+        }
+        ZonedDateTime ifRangeDate = parseHttpDate(value);
+        return ifRangeDate != null && ifRangeDate.toInstant().toEpochMilli() / 1000 == lastModifiedMillis(fileInfo) / 1000;
+    }
+
+    // 解析 HTTP 日期格式的请求头，缺失或格式错误时返回 null
+    private ZonedDateTime parseHttpDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // 解析 Range 请求头，未携带或格式错误时返回空列表
+    private List<HttpRange> parseRanges(String rangeHeader) {
+        if (rangeHeader == null || rangeHeader.isBlank()) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    // 所有范围都要落在文件内，且总长度不能超过文件大小（防止重叠范围放大流量）
+    private boolean isSatisfiable(List<HttpRange> ranges, long fileSize) {
+        long total = 0;
+        for (HttpRange range : ranges) {
+            try {
+                long start = range.getRangeStart(fileSize);
+                // HttpRange 不检查起始位置，"bytes=N-" 的 N 超出文件时 start 大于 end
+                if (start >= fileSize) {
+                    return false;
+                }
+                total += range.getRangeEnd(fileSize) - start + 1;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return total <= fileSize;
+    }
+
+    private void writeByteRanges(OutputStream outputStream, InputStream first, RangeSource source, String contentType,
+                                 long fileSize, List<HttpRange> ranges, String boundary) throws IOException {
+        for (int i = 0; i < ranges.size(); i++) {
+            long start = ranges.get(i).getRangeStart(fileSize);
+            long end = ranges.get(i).getRangeEnd(fileSize);
+            String partHeader = "\r\n--" + boundary + "\r\n"
+                    + "Content-Type: " + contentType + "\r\n"
+                    + "Content-Range: bytes " + start + "-" + end + "/" + fileSize + "\r\n\r\n";
+            try (InputStream inputStream = i == 0 ? first : source.open(start, end - start + 1)) {
+                outputStream.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+                inputStream.transferTo(outputStream);
+            }
+        }
+        outputStream.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // 统计读取的字节数并记录读取失败，超过 limit 时读取失败并标记 exceeded
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+        private boolean exceeded;
+        private IOException failure;
+
+        CountingInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            try {
+                int read = super.read(buffer, off, len);
+                if (read > 0) {
+                    count += read;
+                    if (count > limit) {
+                        exceeded = true;
+                        throw new IOException("文件大小超过 " + limit + " 字节");
+                    }
+                }
+                return read;
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package org.feiyue.controller;
+
+import org.springframework.http.ContentDisposition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按顺序读取 multipart/form-data 请求体中的各个部分，不缓存到内存或临时文件
+ * 每个部分的内容以输入流的形式返回，读到下一个分隔符时结束；调用 next() 时上一部分未读完的内容被跳过。
+ * 内存占用为固定大小的缓冲区，与请求体大小无关
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+final class MultipartStreamReader {
+
+    // 单个部分头的最大长度
+    private static final int MAX_HEADER_SIZE = 16 * 1024;
+
+    private final InputStream in;
+    // 分隔符为 CRLF + "--" + boundary
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    // 缓冲区中未读数据的起止位置
+    private int head;
+    private int tail;
+    // 已确认 [head, scanned) 中不包含分隔符的起点；delimiterAt 为已找到的分隔符位置，-1 表示未找到
+    private int scanned;
+    private int delimiterAt = -1;
+    private PartInputStream current;
+    private boolean finished;
+
+    MultipartStreamReader(InputStream in, String boundary, int bufferSize) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(bufferSize, MAX_HEADER_SIZE + 2 * delimiter.length)];
+        // 第一个分隔符前面没有 CRLF，补上后所有分隔符的格式一致
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        tail = 2;
+    }
+
+    /**
+     * 从 multipart/form-data 的 Content-Type 中取出 boundary，不是 multipart/form-data 时返回 null
+     */
+    static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase().startsWith("multipart/form-data")) {
+            return null;
+        }
+        for (String param : contentType.split(";")) {
+            String[] pair = param.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("boundary")) {
+                String boundary = pair[1].trim();
+                if (boundary.length() >= 2 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                    boundary = boundary.substring(1, boundary.length() - 1);
+                }
+                return boundary.isEmpty() || boundary.length() > 70 ? null : boundary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 下一个部分，没有更多部分时返回 null
+     */
+    Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (current != null) {
+            current.ended = true;
+        }
+        // 跳过第一个分隔符前的前导内容，或上一部分未读完的内容
+        skipToDelimiter();
+        head += delimiter.length;
+        delimiterAt = -1;
+        scanned = head;
+        while (tail - head < 2) {
+            if (!fill()) {
+                throw new MalformedMultipartException("请求体在分隔符之后意外结束");
+            }
+        }
+        if (buffer[head] == '-' && buffer[head + 1] == '-') {
+            // 结束分隔符，之后的内容忽略
+            finished = true;
+            return null;
+        }
+        // 分隔符所在行的剩余部分（允许有空白）
+        readLine();
+
+        String name = null;
+        String fileName = null;
+        String contentType = null;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new MalformedMultipartException("部分头格式错误: " + line);
+            }
+            String header = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+            if (header.equalsIgnoreCase("Content-Disposition")) {
+                try {
+                    ContentDisposition disposition = ContentDisposition.parse(value);
+                    name = disposition.getName();
+                    fileName = disposition.getFilename();
+                } catch (IllegalArgumentException e) {
+                    throw new MalformedMultipartException("Content-Disposition 格式错误: " + value);
+                }
+            } else if (header.equalsIgnoreCase("Content-Type")) {
+                contentType = value;
+            }
+        }
+        scanned = head;
+        current = new PartInputStream();
+        return new Part(name, fileName, contentType, current);
+    }
+
+    // 把当前部分的内容读入 b，当前部分结束时返回 -1（head 停在分隔符上）
+    private int readBody(byte[] b, int off, int len) throws IOException {
+        while (true) {
+            int found = locateDelimiter();
+            int end = found >= 0 ? found : scanned;
+            if (end > head) {
+                int n = Math.min(len, end - head);
+                System.arraycopy(buffer, head, b, off, n);
+                head += n;
+                return n;
+            }
+            if (found >= 0) {
+                return -1;
+            }
+            if (!fill()) {
+                throw new MalformedMultipartException("请求体在结束分隔符之前意外结束");
+            }
+        }
+    }
+
+    private void skipToDelimiter() throws IOException {
+        while (true) {
+            int found = locateDelimiter();
+            if (found >= 0) {
+                head = found;
+                return;
+            }
+            head = scanned;
+            if (!fill()) {
+                throw new MalformedMultipartException("请求体在结束分隔符之前意外结束");
+            }
+        }
+    }
+
+    // 在缓冲区中查找分隔符；未找到时末尾不足一个分隔符长度的数据可能是分隔符的开头，留到下次读入后再查找
+    private int locateDelimiter() {
+        if (delimiterAt >= 0) {
+            return delimiterAt;
+        }
+        int last = tail - delimiter.length;
+        for (int i = Math.max(scanned, head); i <= last; i++) {
+            if (buffer[i] == delimiter[0] && matchesAt(i)) {
+                delimiterAt = i;
+                return i;
+            }
+        }
+        scanned = Math.max(head, last + 1);
+        return -1;
+    }
+
+    private boolean matchesAt(int index) {
+        for (int j = 1; j < delimiter.length; j++) {
+            if (buffer[index + j] != delimiter[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readLine() throws IOException {
+        // head 之后已查找过的字节数，读入更多数据后从这里继续
+        int searched = 0;
+        while (true) {
+            for (int i = head + searched; i < tail - 1; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    String line = new String(buffer, head, i - head, StandardCharsets.UTF_8);
+                    head = i + 2;
+                    return line;
+                }
+            }
+            if (tail - head >= MAX_HEADER_SIZE) {
+                throw new MalformedMultipartException("部分头超过 " + MAX_HEADER_SIZE + " 字节");
+            }
+            searched = Math.max(0, tail - 1 - head);
+            if (!fill()) {
+                throw new MalformedMultipartException("请求体在部分头中意外结束");
+            }
+        }
+    }
+
+    // 把未读数据移到缓冲区开头并读入更多数据，请求体已读完时返回 false
+    private boolean fill() throws IOException {
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            scanned = Math.max(0, scanned - head);
+            if (delimiterAt >= 0) {
+                delimiterAt -= head;
+            }
+            head = 0;
+        }
+        int read = in.read(buffer, tail, buffer.length - tail);
+        if (read < 0) {
+            return false;
+        }
+        tail += read;
+        return true;
+    }
+
+    /**
+     * 请求体中的一个部分；fileName 不为 null 时为文件
+     */
+    record Part(String name, String fileName, String contentType, InputStream body) {
+    }
+
+    /**
+     * 请求体不是合法的 multipart/form-data
+     */
+    static final class MalformedMultipartException extends IOException {
+
+        MalformedMultipartException(String message) {
+            super(message);
+        }
+    }
+
+    // 当前部分的内容，读到分隔符或调用 next() 后结束
+    private final class PartInputStream extends InputStream {
+
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (ended) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int read = readBody(b, off, len);
+            if (read < 0) {
+                ended = true;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // 由 next() 跳过未读完的内容，请求体由调用方关闭
+        }
+    }
+}
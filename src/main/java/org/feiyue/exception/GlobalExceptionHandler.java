@@ -1,12 +1,19 @@
 package org.feiyue.exception;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.feiyue.service.MinioMetrics;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,6 +26,12 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MinioMetrics metrics;
+
+    public GlobalExceptionHandler(MinioMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * 处理自定义MinioException异常
      * 
@@ -30,6 +43,7 @@ public class GlobalExceptionHandler {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("success", false);
         errorResponse.put("errorCode", e.getErrorCode());
+        metrics.recordError(e.getErrorCode());
         errorResponse.put("message", e.getMessage());
         errorResponse.put("detail", e.getDetail());
         errorResponse.put("timestamp", System.currentTimeMillis());
@@ -51,6 +65,7 @@ public class GlobalExceptionHandler {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("success", false);
         errorResponse.put("errorCode", "MINIO_OFFICIAL_ERROR");
+        metrics.recordError("MINIO_OFFICIAL_ERROR");
         errorResponse.put("message", "MinIO操作失败");
         errorResponse.put("detail", e.getMessage());
         errorResponse.put("timestamp", System.currentTimeMillis());
@@ -69,6 +84,7 @@ public class GlobalExceptionHandler {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("success", false);
         errorResponse.put("errorCode", "FILE_SIZE_EXCEEDED");
+        metrics.recordError("FILE_SIZE_EXCEEDED");
         errorResponse.put("message", "文件大小超过限制");
         errorResponse.put("detail", "上传的文件大小超过了系统允许的最大值");
         errorResponse.put("timestamp", System.currentTimeMillis());
@@ -87,6 +103,7 @@ public class GlobalExceptionHandler {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("success", false);
         errorResponse.put("errorCode", "IO_ERROR");
+        metrics.recordError("IO_ERROR");
         errorResponse.put("message", "文件操作失败");
         errorResponse.put("detail", e.getMessage());
         errorResponse.put("timestamp", System.currentTimeMillis());
@@ -94,6 +111,48 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
 
+    /**
+     * 处理异步请求超时异常
+     * 
+     * @param e AsyncRequestTimeoutException异常
+     * @return 标准化的错误响应
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleAsyncRequestTimeoutException(AsyncRequestTimeoutException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("errorCode", "REQUEST_TIMEOUT");
+        metrics.recordError("REQUEST_TIMEOUT");
+        errorResponse.put("message", "请求处理超时");
+        errorResponse.put("detail", "操作未在 minio.async.timeout 配置的时间内完成");
+        errorResponse.put("timestamp", System.currentTimeMillis());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    /**
+     * 处理异步执行器已满的异常
+     * 未使用虚拟线程时异步传输线程和等待队列都已占满，返回 503 让客户端稍后重试
+     * 
+     * @param e TaskRejectedException异常
+     * @param response 当前响应，下载接口在提交任务前已写入的文件响应头需要清除
+     * @return 标准化的错误响应
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleTaskRejectedException(TaskRejectedException e,
+                                                                           HttpServletResponse response) {
+        resetKeepingCors(response);
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("errorCode", "SERVICE_BUSY");
+        metrics.recordError("SERVICE_BUSY");
+        errorResponse.put("message", "服务繁忙，请稍后重试");
+        errorResponse.put("detail", "异步传输数已达到 minio.async.platform-concurrency 与 minio.async.queue-capacity 的上限");
+        errorResponse.put("timestamp", System.currentTimeMillis());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(errorResponse);
+    }
+
     /**
      * 处理安全相关异常
      * 
@@ -105,6 +164,7 @@ public class GlobalExceptionHandler {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("success", false);
         errorResponse.put("errorCode", "SECURITY_ERROR");
+        metrics.recordError("SECURITY_ERROR");
         errorResponse.put("message", "安全验证失败");
         errorResponse.put("detail", e.getMessage());
         errorResponse.put("timestamp", System.currentTimeMillis());
@@ -123,6 +183,7 @@ public class GlobalExceptionHandler {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("success", false);
         errorResponse.put("errorCode", "XML_PARSE_ERROR");
+        metrics.recordError("XML_PARSE_ERROR");
         errorResponse.put("message", "XML解析失败");
         errorResponse.put("detail", e.getMessage());
         errorResponse.put("timestamp", System.currentTimeMillis());
@@ -141,6 +202,7 @@ public class GlobalExceptionHandler {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("success", false);
         errorResponse.put("errorCode", "UNKNOWN_ERROR");
+        metrics.recordError("UNKNOWN_ERROR");
         errorResponse.put("message", "系统内部错误");
         errorResponse.put("detail", e.getMessage());
         errorResponse.put("timestamp", System.currentTimeMillis());
@@ -165,11 +227,34 @@ public class GlobalExceptionHandler {
                 return HttpStatus.SERVICE_UNAVAILABLE;
             case MinioException.FILE_SIZE_EXCEEDED_ERROR_CODE:
             case MinioException.UNSUPPORTED_FORMAT_ERROR_CODE:
+            case MinioException.INVALID_ARGUMENT_ERROR_CODE:
                 return HttpStatus.BAD_REQUEST;
+            case MinioException.RANGE_NOT_SATISFIABLE_ERROR_CODE:
+                return HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
+            case MinioException.OBJECT_CHANGED_ERROR_CODE:
+                return HttpStatus.PRECONDITION_FAILED;
             case MinioException.UPLOAD_ERROR_CODE:
             case MinioException.DOWNLOAD_ERROR_CODE:
             default:
                 return HttpStatus.INTERNAL_SERVER_ERROR;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 清除尚未提交的响应中已设置的 Content-Length、ETag、Content-Disposition 等文件响应头，
+     * 保留跨域相关的响应头
+     */
+    private static void resetKeepingCors(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+        Map<String, List<String>> kept = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (name.equalsIgnoreCase("Vary") || name.regionMatches(true, 0, "Access-Control-", 0, 15)) {
+                kept.putIfAbsent(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        response.reset();
+        kept.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+    }
+}
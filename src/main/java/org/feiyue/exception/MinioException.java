@@ -63,6 +63,21 @@ public class MinioException extends RuntimeException {
      * 文件大小超限错误码
      */
     public static final String FILE_SIZE_EXCEEDED_ERROR_CODE = "MINIO_FILE_SIZE_EXCEEDED";
+    
+    /**
+     * 请求范围无效错误码
+     */
+    public static final String RANGE_NOT_SATISFIABLE_ERROR_CODE = "MINIO_RANGE_NOT_SATISFIABLE";
+
+    /**
+     * 请求参数无效错误码
+     */
+    public static final String INVALID_ARGUMENT_ERROR_CODE = "MINIO_INVALID_ARGUMENT";
+
+    /**
+     * 对象在读取期间被修改错误码
+     */
+    public static final String OBJECT_CHANGED_ERROR_CODE = "MINIO_OBJECT_CHANGED";
 
     /**
      * 构造函数 - 使用默认错误码
@@ -266,6 +281,63 @@ public class MinioException extends RuntimeException {
         );
     }
 
+    /**
+     * 创建请求范围无效异常
+     * 
+     * @param fileName 文件名
+     * @return MinioException
+     */
+    public static MinioException rangeNotSatisfiable(String fileName) {
+        return new MinioException(
+            RANGE_NOT_SATISFIABLE_ERROR_CODE,
+            "请求范围无效：" + fileName,
+            "请求的字节范围超出了文件 " + fileName + " 的大小"
+        );
+    }
+
+    /**
+     * 创建对象已被修改异常（按 ETag 条件读取时版本不一致）
+     * 
+     * @param fileName 文件名
+     * @return MinioException
+     */
+    public static MinioException objectChanged(String fileName) {
+        return new MinioException(
+            OBJECT_CHANGED_ERROR_CODE,
+            "文件已被修改：" + fileName,
+            "文件 " + fileName + " 在读取期间已被修改，请重新请求"
+        );
+    }
+
+    /**
+     * 创建上传会话不存在异常
+     * 
+     * @param sessionId 上传会话ID
+     * @return MinioException
+     */
+    public static MinioException uploadSessionNotFound(String sessionId) {
+        return new MinioException(
+            FILE_NOT_FOUND_ERROR_CODE,
+            "上传会话不存在：" + sessionId,
+            "上传会话 " + sessionId + " 不存在，或已完成、已放弃"
+        );
+    }
+
+    /**
+     * 创建请求参数无效异常
+     * 
+     * @param argument 参数名
+     * @param reason 无效的原因
+     * @return MinioException
+     */
+    public static MinioException invalidArgument(String argument, String reason) {
+        return new MinioException(
+            INVALID_ARGUMENT_ERROR_CODE,
+            "参数无效：" + argument,
+            reason
+        );
+    }
+
     @Override
     public String toString() {
         return "MinioException{" +
@@ -0,0 +1,26 @@
+package org.feiyue.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 批量上传中的单个文件
+ *
+ * @param objectName 对象名称
+ * @param fileName 原始文件名，用于返回结果
+ * @param size 文件大小，-1 表示未知
+ * @param contentType 文件类型，可为空
+ * @param source 文件内容，在上传线程中打开
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record BatchUploadItem(String objectName, String fileName, long size, String contentType, Source source) {
+
+    /**
+     * 文件内容来源
+     */
+    @FunctionalInterface
+    public interface Source {
+        InputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,19 @@
+package org.feiyue.service;
+
+/**
+ * 批量上传中单个文件的结果，失败时 errorCode 为 MinioException 的错误码
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record BatchUploadResult(String objectName, String fileName, long size, boolean success,
+                                String errorCode, String message) {
+
+    static BatchUploadResult succeeded(BatchUploadItem item, String message) {
+        return new BatchUploadResult(item.objectName(), item.fileName(), item.size(), true, null, message);
+    }
+
+    static BatchUploadResult failed(BatchUploadItem item, String errorCode, String message) {
+        return new BatchUploadResult(item.objectName(), item.fileName(), item.size(), false, errorCode, message);
+    }
+}
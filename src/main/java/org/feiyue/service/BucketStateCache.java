@@ -0,0 +1,93 @@
+package org.feiyue.service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bucket存在状态缓存
+ * 记录已确认存在的Bucket及其过期时间，避免每次上传都请求 bucketExists；
+ * 同一个Bucket的检查/创建通过独立的锁串行执行，保证并发首次上传只创建一次；
+ * 检查失败的Bucket（名称无效、无权限等）不保留条目，避免任意请求的Bucket名称一直占用内存
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class BucketStateCache {
+
+    /**
+     * 检查并在需要时创建Bucket的实际操作
+     */
+    @FunctionalInterface
+    interface BucketEnsurer {
+        void ensure(String bucketName) throws Exception;
+    }
+
+    private static final class BucketState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long expiresAt;
+        private volatile boolean verified;
+
+        private boolean isFresh(long now) {
+            return verified && expiresAt - now > 0;
+        }
+    }
+
+    private final ConcurrentHashMap<String, BucketState> states = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    BucketStateCache(Duration ttl) {
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+    }
+
+    /**
+     * 缓存未命中或已过期时调用 ensurer，成功后记录为已存在
+     *
+     * @return true 表示命中缓存，没有访问MinIO
+     */
+    boolean ensure(String bucketName, BucketEnsurer ensurer) throws Exception {
+        if (ttlNanos <= 0) {
+            ensurer.ensure(bucketName);
+            return false;
+        }
+        BucketState state = states.computeIfAbsent(bucketName, name -> new BucketState());
+        if (state.isFresh(System.nanoTime())) {
+            return true;
+        }
+        state.lock.lock();
+        try {
+            // 等锁期间可能已有其他线程完成了检查
+            if (state.isFresh(System.nanoTime())) {
+                return true;
+            }
+            try {
+                ensurer.ensure(bucketName);
+            } catch (Exception e) {
+                states.remove(bucketName, state);
+                throw e;
+            }
+            state.expiresAt = System.nanoTime() + ttlNanos;
+            state.verified = true;
+            return false;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * 使指定Bucket的缓存失效
+     */
+    void invalidate(String bucketName) {
+        BucketState state = states.get(bucketName);
+        if (state != null) {
+            state.verified = false;
+        }
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    void invalidateAll() {
+        states.values().forEach(state -> state.verified = false);
+    }
+}
@@ -0,0 +1,10 @@
+package org.feiyue.service;
+
+/**
+ * 批量删除的汇总：requested 为请求删除的对象数，其中 deleted 个删除成功（对象本来不存在也算成功），failed 个失败
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record BulkDeleteResult(String bucketName, long requested, long deleted, long failed) {
+}
@@ -0,0 +1,172 @@
+package org.feiyue.service;
+
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import org.feiyue.config.MinioClientPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * 内容去重的哈希索引：Bucket + SHA-256 -> 该Bucket中内容为此哈希的一个对象
+ * 索引保存在MinIO的索引Bucket中，每条索引是一个空对象（键为 bucket/sha256），对象名、ETag 和大小记录在用户元数据里，
+ * 多个实例共享，重启后仍然有效。对象被覆盖或删除后索引不会立即更新，使用方以 ETag 作为复制条件校验
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class ContentIndex {
+
+    private static final String OBJECT_KEY = "object";
+    private static final String ETAG_KEY = "etag";
+    private static final String SIZE_KEY = "size";
+
+    private final MinioClientPool clientPool;
+    private final String indexBucket;
+
+    ContentIndex(MinioClientPool clientPool, String indexBucket) {
+        this.clientPool = clientPool;
+        this.indexBucket = indexBucket;
+    }
+
+    String indexBucket() {
+        return indexBucket;
+    }
+
+    /**
+     * 查找内容为 sha256 的对象，没有索引时返回 null
+     */
+    Entry find(String bucketName, String sha256) throws Exception {
+        StatObjectResponse stat;
+        try {
+            stat = clientPool.execute(client -> client.statObject(StatObjectArgs.builder()
+                    .bucket(indexBucket)
+                    .object(key(bucketName, sha256))
+                    .build()));
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code()) || "NoSuchObject".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+        Map<String, String> metadata = stat.userMetadata();
+        String objectName = metadata.get(OBJECT_KEY);
+        String etag = metadata.get(ETAG_KEY);
+        if (objectName == null || etag == null) {
+            return null;
+        }
+        String size = metadata.get(SIZE_KEY);
+        return new Entry(URLDecoder.decode(objectName, StandardCharsets.UTF_8), etag,
+                size == null ? -1 : Long.parseLong(size));
+    }
+
+    /**
+     * 记录内容为 sha256 的对象，覆盖之前的索引
+     */
+    void put(String bucketName, String sha256, String objectName, String etag, long size) throws Exception {
+        // 用户元数据只能是 ASCII，对象名编码后保存
+        Map<String, String> metadata = Map.of(
+                OBJECT_KEY, URLEncoder.encode(objectName, StandardCharsets.UTF_8),
+                ETAG_KEY, etag.replace("\"", ""),
+                SIZE_KEY, String.valueOf(size));
+        PutObjectArgs args = PutObjectArgs.builder()
+                .bucket(indexBucket)
+                .object(key(bucketName, sha256))
+                .stream(new ByteArrayInputStream(new byte[0]), 0, -1)
+                .userMetadata(metadata)
+                .build();
+        clientPool.execute(client -> client.putObject(args));
+    }
+
+    /**
+     * 删除已过期的索引
+     */
+    void remove(String bucketName, String sha256) throws Exception {
+        clientPool.execute(client -> {
+            client.removeObject(RemoveObjectArgs.builder().bucket(indexBucket).object(key(bucketName, sha256)).build());
+            return null;
+        });
+    }
+
+    private static String key(String bucketName, String sha256) {
+        return bucketName + "/" + sha256;
+    }
+
+    /**
+     * 一条索引；size 为 -1 表示大小未知
+     */
+    record Entry(String objectName, String etag, long size) {
+    }
+
+    /**
+     * 上传时顺带计算 SHA-256 和字节数，不额外读取数据
+     */
+    static final class HashingInputStream extends FilterInputStream {
+
+        private final MessageDigest digest;
+        private long size;
+
+        HashingInputStream(InputStream in) {
+            super(in);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+                size++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int read = super.read(buffer, off, len);
+            if (read > 0) {
+                digest.update(buffer, off, read);
+                size += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            // 跳过的数据无法计入哈希
+            return 0;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        long size() {
+            return size;
+        }
+
+        /**
+         * 已读取内容的 SHA-256（小写十六进制），只能调用一次
+         */
+        String sha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
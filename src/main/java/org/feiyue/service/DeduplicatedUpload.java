@@ -0,0 +1,12 @@
+package org.feiyue.service;
+
+/**
+ * 按内容哈希完成的上传：objectName 由同一Bucket中内容相同的 sourceObjectName 在服务端复制而来，
+ * 客户端没有上传内容；size 为 -1 表示索引中没有记录大小
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record DeduplicatedUpload(String bucketName, String objectName, String sourceObjectName, String sha256,
+                                 long size, String etag) {
+}
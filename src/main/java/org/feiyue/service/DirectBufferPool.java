@@ -0,0 +1,44 @@
+package org.feiyue.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 下载写盘用的直接缓冲区池
+ * 每个分段借用一个 bufferSize 大小的直接缓冲区，用完归还；直接缓冲区写入 FileChannel 时
+ * 不需要 JDK 再复制到临时直接缓冲区。池中最多保留 maxIdle 个空闲缓冲区，
+ * 并发超过时临时分配，归还时放不下的交给 GC 回收
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+final class DirectBufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> idle;
+
+    DirectBufferPool(int bufferSize, int maxIdle) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+    }
+
+    /**
+     * 借用一个已清空的缓冲区，使用完须调用 release 归还
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = idle.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer.clear();
+    }
+
+    void release(ByteBuffer buffer) {
+        idle.offer(buffer);
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+}
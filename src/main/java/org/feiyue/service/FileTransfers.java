@@ -0,0 +1,90 @@
+package org.feiyue.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 本地文件写入工具
+ * 用池化的直接缓冲区把网络流按位置写入 FileChannel，分段下载的各分段可以并发写入同一文件；
+ * 下载先写临时文件，完成后原子重命名，避免目标文件名下出现写了一半的文件
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+final class FileTransfers {
+
+    private FileTransfers() {
+    }
+
+    /**
+     * 将输入流写入文件的指定位置
+     * 从池中借用直接缓冲区，每次读满整个缓冲区再按位置写入，写盘的系统调用次数由 bufferSize 决定，
+     * 且直接缓冲区写入时不再复制；输入流不是 FileChannel，transferFrom 只会用 8KB 的临时缓冲区逐块复制
+     *
+     * @param length 期望写入的字节数，-1 表示读到流结束
+     * @param buffers 读取和写入使用的缓冲区池
+     * @return 实际写入的字节数
+     */
+    static long transfer(InputStream in, FileChannel target, long position, long length, DirectBufferPool buffers)
+            throws IOException {
+        ByteBuffer buffer = buffers.acquire();
+        try {
+            // 不关闭该通道，输入流由调用方关闭
+            ReadableByteChannel source = Channels.newChannel(in);
+            long written = 0;
+            boolean end = false;
+            while (!end && (length < 0 || written < length)) {
+                buffer.clear();
+                if (length >= 0) {
+                    buffer.limit((int) Math.min(buffer.capacity(), length - written));
+                }
+                while (buffer.hasRemaining()) {
+                    if (source.read(buffer) < 0) {
+                        end = true;
+                        break;
+                    }
+                }
+                buffer.flip();
+                int count = buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer, position + written + buffer.position());
+                }
+                written += count;
+            }
+            if (length >= 0 && written < length) {
+                throw new IOException("数据提前结束: position=" + position + ", 期望 " + length
+                        + " 字节, 实际 " + written + " 字节");
+            }
+            return written;
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    /**
+     * 在目标文件所在目录创建隐藏的临时文件，保证之后的重命名不跨文件系统
+     */
+    static Path createTempFile(Path target) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        return Files.createTempFile(dir, "." + target.getFileName() + ".", ".part");
+    }
+
+    /**
+     * 将临时文件重命名为目标文件，文件系统不支持原子重命名时退回普通重命名
+     */
+    static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
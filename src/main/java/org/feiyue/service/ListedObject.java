@@ -0,0 +1,12 @@
+package org.feiyue.service;
+
+import java.time.ZonedDateTime;
+
+/**
+ * 列出对象时的一个条目；按 delimiter 折叠的公共前缀 prefix 为 true，此时只有 name
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record ListedObject(String name, boolean prefix, Long size, String etag, ZonedDateTime lastModified) {
+}
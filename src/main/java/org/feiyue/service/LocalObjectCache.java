@@ -0,0 +1,352 @@
+package org.feiyue.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 本地磁盘读穿缓存
+ * 以 bucket + object + ETag 为键把热点对象保存在本地目录，对象内容变化后 ETag 不同，旧文件自然不再命中；
+ * 总大小超过上限时按最近最少使用删除。未命中时边把MinIO的数据流返回给调用方边写入临时文件，
+ * 完整读取后才重命名进缓存目录
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@Component
+public class LocalObjectCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalObjectCache.class);
+
+    private static final String FILE_SUFFIX = ".obj";
+    private static final String TEMP_SUFFIX = ".part";
+
+    private final Path directory;
+    private final long maxSize;
+    private final long maxObjectSize;
+
+    // 文件名（键的哈希）-> 文件大小，按访问顺序排列
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    // 当前进程写入的条目，用于按 bucket + object 失效
+    private final Map<ObjectKey, String> namesByKey = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LocalObjectCache(@Value("${minio.local-cache.enabled:false}") boolean enabled,
+                            @Value("${minio.local-cache.dir:${java.io.tmpdir}/minio-cache}") Path directory,
+                            @Value("${minio.local-cache.max-size:1GB}") DataSize maxSize,
+                            @Value("${minio.local-cache.max-object-size:100MB}") DataSize maxObjectSize) {
+        this.directory = enabled ? directory : null;
+        this.maxSize = maxSize.toBytes();
+        this.maxObjectSize = maxObjectSize.toBytes();
+        if (isEnabled()) {
+            loadExisting();
+        }
+    }
+
+    boolean isEnabled() {
+        return directory != null && maxSize > 0;
+    }
+
+    /**
+     * 对象是否适合放入缓存
+     */
+    boolean accepts(long objectSize) {
+        return isEnabled() && objectSize >= 0 && objectSize <= Math.min(maxObjectSize, maxSize);
+    }
+
+    /**
+     * 打开缓存文件，未命中时返回 null；调用方负责关闭返回的通道
+     * 在持有锁时打开，之后即使该文件被淘汰删除，已打开的通道仍可读取完整内容
+     */
+    FileChannel open(String bucketName, String objectName, String etag) {
+        if (!isEnabled() || etag == null || etag.isEmpty()) {
+            return null;
+        }
+        String name = fileName(bucketName, objectName, etag);
+        lock.lock();
+        try {
+            if (index.get(name) != null) {
+                try {
+                    FileChannel channel = FileChannel.open(directory.resolve(name), StandardOpenOption.READ);
+                    hits.incrementAndGet();
+                    return channel;
+                } catch (NoSuchFileException e) {
+                    // 文件已被外部删除
+                    currentSize -= index.remove(name);
+                } catch (IOException e) {
+                    logger.warn("打开本地缓存文件失败: {}", name, e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 包装MinIO数据流：读取的同时写入临时文件，完整读完且大小一致时放入缓存；
+     * 中途关闭或写入失败只放弃缓存，不影响调用方读取
+     */
+    InputStream readThrough(String bucketName, String objectName, String etag, long objectSize, InputStream source) {
+        if (!accepts(objectSize) || etag == null || etag.isEmpty()) {
+            return source;
+        }
+        try {
+            Path temp = Files.createTempFile(directory, "cache-", TEMP_SUFFIX);
+            FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+            return new ReadThroughStream(source, channel, temp, new ObjectKey(bucketName, objectName),
+                    fileName(bucketName, objectName, etag), objectSize);
+        } catch (IOException e) {
+            logger.warn("无法创建本地缓存临时文件: {}", directory, e);
+            return source;
+        }
+    }
+
+    /**
+     * 使当前进程缓存的某个对象失效
+     */
+    void invalidate(String bucketName, String objectName) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            String name = namesByKey.remove(new ObjectKey(bucketName, objectName));
+            if (name != null && index.containsKey(name)) {
+                currentSize -= index.remove(name);
+                deleteQuietly(directory.resolve(name));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("enabled", isEnabled());
+            stats.put("directory", directory == null ? null : directory.toString());
+            stats.put("entries", index.size());
+            stats.put("size", currentSize);
+            stats.put("maxSize", maxSize);
+        } finally {
+            lock.unlock();
+        }
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void commit(Path temp, ObjectKey key, String name, long size) {
+        Path target = directory.resolve(name);
+        try {
+            FileTransfers.moveIntoPlace(temp, target);
+        } catch (IOException e) {
+            logger.warn("写入本地缓存失败: {}", target, e);
+            deleteQuietly(temp);
+            return;
+        }
+        List<Path> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Long previous = index.put(name, size);
+            currentSize += size - (previous == null ? 0 : previous);
+            String replaced = namesByKey.put(key, name);
+            if (replaced != null && !replaced.equals(name) && index.containsKey(replaced)) {
+                // 同一对象的旧版本不会再被命中
+                currentSize -= index.remove(replaced);
+                evicted.add(directory.resolve(replaced));
+            }
+            Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+            while (currentSize > maxSize && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                if (eldest.getKey().equals(name)) {
+                    continue;
+                }
+                iterator.remove();
+                currentSize -= eldest.getValue();
+                evictions.incrementAndGet();
+                evicted.add(directory.resolve(eldest.getKey()));
+            }
+            namesByKey.values().removeIf(value -> !index.containsKey(value));
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(this::deleteQuietly);
+        logger.debug("对象已写入本地缓存: bucket={}, object={}, size={}", key.bucketName(), key.objectName(), size);
+    }
+
+    // 启动时载入目录中已有的缓存文件，按最后修改时间作为访问顺序，并清理上次遗留的临时文件
+    private void loadExisting() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.toList();
+            }
+            List<Map.Entry<Path, BasicFileAttributes>> entries = new ArrayList<>();
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(TEMP_SUFFIX)) {
+                    deleteQuietly(file);
+                } else if (fileName.endsWith(FILE_SUFFIX)) {
+                    entries.add(Map.entry(file, Files.readAttributes(file, BasicFileAttributes.class)));
+                }
+            }
+            entries.sort((a, b) -> a.getValue().lastModifiedTime().compareTo(b.getValue().lastModifiedTime()));
+            for (Map.Entry<Path, BasicFileAttributes> entry : entries) {
+                index.put(entry.getKey().getFileName().toString(), entry.getValue().size());
+                currentSize += entry.getValue().size();
+            }
+            logger.info("本地缓存目录: {}, 已有 {} 个文件, 共 {} 字节", directory, index.size(), currentSize);
+        } catch (IOException e) {
+            logger.warn("载入本地缓存目录失败: {}", directory, e);
+        }
+    }
+
+    private static String fileName(String bucketName, String objectName, String etag) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((bucketName + "\n" + objectName + "\n" + etag).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + FILE_SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("删除本地缓存文件失败: {}", path, e);
+        }
+    }
+
+    /**
+     * 边读边写入缓存临时文件的数据流
+     */
+    private final class ReadThroughStream extends FilterInputStream {
+
+        private final FileChannel channel;
+        private final Path temp;
+        private final ObjectKey key;
+        private final String name;
+        private final long expectedSize;
+        private long written;
+        private boolean done;
+
+        private ReadThroughStream(InputStream source, FileChannel channel, Path temp, ObjectKey key,
+                                  String name, long expectedSize) {
+            super(source);
+            this.channel = channel;
+            this.temp = temp;
+            this.key = key;
+            this.name = name;
+            this.expectedSize = expectedSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                append(b, off, n);
+            } else if (n == -1) {
+                finish(written == expectedSize);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // 跳过的数据无法写入缓存
+            finish(false);
+            return super.skip(n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                finish(false);
+            }
+        }
+
+        private void append(byte[] b, int off, int n) {
+            if (done) {
+                return;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(b, off, n);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                written += n;
+            } catch (IOException e) {
+                logger.warn("写入本地缓存临时文件失败: {}", temp, e);
+                finish(false);
+            }
+        }
+
+        private void finish(boolean complete) {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("关闭本地缓存临时文件失败: {}", temp, e);
+                complete = false;
+            }
+            if (complete) {
+                commit(temp, key, name, written);
+            } else {
+                deleteQuietly(temp);
+            }
+        }
+    }
+}
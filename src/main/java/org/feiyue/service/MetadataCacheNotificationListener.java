@@ -0,0 +1,114 @@
+package org.feiyue.service;
+
+import io.minio.CloseableIterator;
+import io.minio.ListenBucketNotificationArgs;
+import io.minio.Result;
+import io.minio.messages.Event;
+import io.minio.messages.NotificationRecords;
+import jakarta.annotation.PreDestroy;
+import org.feiyue.config.MinioClientPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通过 MinIO 的 listenBucketNotification 监听对象创建和删除事件，
+ * 使元数据缓存中对应的条目失效，保证其他进程写入同一对象后缓存仍然正确
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@Component
+public class MetadataCacheNotificationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCacheNotificationListener.class);
+
+    private static final String[] EVENTS = {"s3:ObjectCreated:*", "s3:ObjectRemoved:*"};
+
+    // 监听断开后重新连接的等待时间
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final MinioClientPool clientPool;
+    private final MinioService minioService;
+
+    @Value("${minio.metadata-cache.notification.enabled:false}")
+    private boolean enabled;
+
+    @Value("${minio.metadata-cache.notification.buckets:}")
+    private String[] buckets;
+
+    private final List<Thread> listeners = new ArrayList<>();
+    private volatile boolean running;
+
+    public MetadataCacheNotificationListener(MinioClientPool clientPool, MinioService minioService) {
+        this.clientPool = clientPool;
+        this.minioService = minioService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || buckets == null || buckets.length == 0) {
+            return;
+        }
+        running = true;
+        for (String bucket : buckets) {
+            if (bucket.isBlank()) {
+                continue;
+            }
+            String bucketName = bucket.trim();
+            listeners.add(Thread.ofVirtual()
+                    .name("minio-notification-" + bucketName)
+                    .start(() -> listen(bucketName)));
+            logger.info("开始监听Bucket通知: {}", bucketName);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listeners.forEach(Thread::interrupt);
+    }
+
+    private void listen(String bucketName) {
+        while (running) {
+            // 每次重连重新选择节点，原节点被摘除后切换到其他节点
+            try (CloseableIterator<Result<NotificationRecords>> records = clientPool.client().listenBucketNotification(
+                    ListenBucketNotificationArgs.builder()
+                            .bucket(bucketName)
+                            .prefix("")
+                            .suffix("")
+                            .events(EVENTS)
+                            .build())) {
+                // 重新连接期间可能漏掉事件，整个Bucket的缓存先失效
+                minioService.invalidateFileInfos(bucketName);
+                while (running && records.hasNext()) {
+                    for (Event event : records.next().get().events()) {
+                        String objectName = URLDecoder.decode(event.objectName(), StandardCharsets.UTF_8);
+                        logger.debug("收到对象变更通知: bucket={}, object={}, event={}",
+                                event.bucketName(), objectName, event.eventType());
+                        minioService.invalidateFileInfo(event.bucketName(), objectName);
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Bucket通知监听中断，{} 毫秒后重连: bucket={}, error={}",
+                        RECONNECT_DELAY_MILLIS, bucketName, e.toString());
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
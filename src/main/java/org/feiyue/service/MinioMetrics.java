@@ -0,0 +1,119 @@
+package org.feiyue.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MinIO 操作的监控指标
+ * minio.operation：每种操作（upload、stat、download、stream、bucket、copy、list、delete）的耗时直方图，按结果打标签；
+ * minio.operation.active：进行中的操作数；minio.transfer.bytes：传输字节数；
+ * minio.errors：按 MinioException 错误码统计的错误数
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@Component
+public class MinioMetrics {
+
+    public static final String UPLOAD = "upload";
+    public static final String STAT = "stat";
+    public static final String DOWNLOAD = "download";
+    public static final String STREAM = "stream";
+    public static final String BUCKET = "bucket";
+    public static final String COPY = "copy";
+    public static final String LIST = "list";
+    public static final String DELETE = "delete";
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+    public MinioMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 开始记录一次操作，配合 try-with-resources 使用；成功时调用 succeeded()，否则关闭时按失败记录
+     */
+    public Operation start(String operation) {
+        activeGauge(operation).incrementAndGet();
+        return new Operation(operation, Timer.start(registry));
+    }
+
+    /**
+     * 记录传输的字节数
+     */
+    public void addBytes(String operation, long bytes) {
+        if (bytes > 0) {
+            Counter.builder("minio.transfer.bytes")
+                    .description("与MinIO之间传输的字节数")
+                    .baseUnit("bytes")
+                    .tag("operation", operation)
+                    .register(registry)
+                    .increment(bytes);
+        }
+    }
+
+    /**
+     * 按错误码记录一次错误
+     */
+    public void recordError(String errorCode) {
+        Counter.builder("minio.errors")
+                .description("按错误码统计的MinIO操作错误数")
+                .tag("errorCode", errorCode == null ? "UNKNOWN" : errorCode)
+                .register(registry)
+                .increment();
+    }
+
+    private AtomicInteger activeGauge(String operation) {
+        return active.computeIfAbsent(operation, key -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder("minio.operation.active", value, AtomicInteger::get)
+                    .description("进行中的MinIO操作数")
+                    .tag("operation", key)
+                    .register(registry);
+            return value;
+        });
+    }
+
+    /**
+     * 一次进行中的操作
+     */
+    public final class Operation implements AutoCloseable {
+
+        private final String name;
+        private final Timer.Sample sample;
+        private boolean succeeded;
+        private boolean closed;
+
+        private Operation(String name, Timer.Sample sample) {
+            this.name = name;
+            this.sample = sample;
+        }
+
+        public void succeeded() {
+            succeeded = true;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            activeGauge(name).decrementAndGet();
+            sample.stop(Timer.builder("minio.operation")
+                    .description("MinIO操作耗时")
+                    .tag("operation", name)
+                    .tag("outcome", succeeded ? "success" : "error")
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+}
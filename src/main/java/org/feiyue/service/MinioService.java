@@ -1,87 +1,980 @@
 package org.feiyue.service;
 
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.ServerException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Part;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.feiyue.config.MinioClientPool;
 import org.feiyue.exception.MinioException;
 
 @Service
 public class MinioService {
 
     private static final Logger logger = LoggerFactory.getLogger(MinioService.class);
-    private final MinioClient minioClient;
 
-    public MinioService(MinioClient minioClient) {
-        this.minioClient = minioClient;
+    private static final Pattern SHA256_PATTERN = Pattern.compile("^[0-9a-fA-F]{64}$");
+
+    // 一次 DeleteObjects 请求最多删除的对象数（S3 的上限）
+    private static final int MAX_DELETE_BATCH_SIZE = 1000;
+
+    // 上传重试时除第一个分片外多保留的字节数，覆盖 SDK 读取时的预读（BufferedInputStream 和 16KB 的读取块）
+    private static final int REPLAY_MARGIN = 64 * 1024;
+
+    private final MinioClientPool clientPool;
+
+    // 分片上传的默认分片大小，同时也是单次上传的内存占用上限
+    @Value("${minio.upload.part-size:10MB}")
+    private DataSize uploadPartSize;
+
+    // 上传会话中单个分块的最大字节数（SDK 会把分块读入内存）
+    @Value("${minio.upload.session.max-chunk-size:64MB}")
+    private DataSize maxChunkSize;
+
+    // 批量上传时同时进行的上传数
+    @Value("${minio.upload.batch-concurrency:16}")
+    private int batchUploadConcurrency;
+
+    // 批量查询文件信息时同时进行的 statObject 数
+    @Value("${minio.stat.batch-concurrency:32}")
+    private int batchStatConcurrency;
+
+    // 批量删除时同时进行的 DeleteObjects 请求数
+    @Value("${minio.delete.batch-concurrency:4}")
+    private int batchDeleteConcurrency;
+
+    // Bucket存在状态缓存，ttl 为 0 时每次都访问MinIO
+    private final BucketStateCache bucketStateCache;
+
+    // 对象元数据缓存，max-entries 或 ttl 为 0 时不缓存
+    private final ObjectMetadataCache metadataCache;
+
+    // 热点对象的本地磁盘缓存
+    private final LocalObjectCache localObjectCache;
+
+    // 各操作的耗时、字节数等监控指标
+    private final MinioMetrics metrics;
+
+    // 大文件分段并行下载
+    private final RangedDownloader rangedDownloader;
+
+    // 下载写盘用的直接缓冲区，大小为 minio.download.buffer-size
+    private final DirectBufferPool downloadBuffers;
+
+    // 预签名 URL 和 POST 策略
+    private final ObjectPresigner presigner;
+
+    // 内容去重的哈希索引，未开启 minio.dedup.enabled 时为 null
+    private final ContentIndex contentIndex;
+
+    public MinioService(MinioClientPool clientPool,
+                        LocalObjectCache localObjectCache,
+                        MinioMetrics metrics,
+                        ObjectPresigner presigner,
+                        @Value("${minio.bucket-cache.ttl:5m}") Duration bucketCacheTtl,
+                        @Value("${minio.download.part-size:16MB}") DataSize downloadPartSize,
+                        @Value("${minio.download.parallelism:4}") int downloadParallelism,
+                        @Value("${minio.download.max-retries:3}") int downloadMaxRetries,
+                        @Value("${minio.download.buffer-size:256KB}") DataSize downloadBufferSize,
+                        @Value("${minio.metadata-cache.max-entries:10000}") int metadataCacheMaxEntries,
+                        @Value("${minio.metadata-cache.ttl:30s}") Duration metadataCacheTtl,
+                        @Value("${minio.dedup.enabled:false}") boolean dedupEnabled,
+                        @Value("${minio.dedup.index-bucket:content-index}") String dedupIndexBucket) {
+        this.clientPool = clientPool;
+        this.localObjectCache = localObjectCache;
+        this.metrics = metrics;
+        this.presigner = presigner;
+        this.bucketStateCache = new BucketStateCache(bucketCacheTtl);
+        this.metadataCache = new ObjectMetadataCache(metadataCacheMaxEntries, metadataCacheTtl);
+        // 空闲时保留的缓冲区数：可供几个分段下载同时使用，更多并发时临时分配
+        this.downloadBuffers = new DirectBufferPool((int) downloadBufferSize.toBytes(),
+                Math.max(1, downloadParallelism) * 4);
+        this.rangedDownloader = new RangedDownloader(clientPool, downloadPartSize.toBytes(),
+                downloadParallelism, downloadMaxRetries, downloadBuffers);
+        this.contentIndex = dedupEnabled ? new ContentIndex(clientPool, dedupIndexBucket) : null;
     }
 
-    // 检查并创建 Bucket
+    // 检查并创建 Bucket（已确认存在的Bucket在缓存有效期内直接跳过）
     public void checkAndCreateBucket(String bucketName) throws MinioException {
-        logger.info("检查Bucket是否存在: {}", bucketName);
         try {
-            boolean isExist = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+            if (bucketStateCache.ensure(bucketName, this::ensureBucket)) {
+                logger.debug("Bucket状态命中缓存: {}", bucketName);
+            }
+        } catch (MinioException e) {
+            // MinIO不可用（熔断或连接失败）
+            logger.error("Bucket操作失败: {}", bucketName, e);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Bucket操作失败: {}", bucketName, e);
+            throw MinioException.bucketNotFound(bucketName);
+        }
+    }
+
+    // 使Bucket状态缓存失效，Bucket被外部删除或重建后调用
+    public void invalidateBucket(String bucketName) {
+        bucketStateCache.invalidate(bucketName);
+    }
+
+    // 使全部Bucket状态缓存失效
+    public void invalidateAllBuckets() {
+        bucketStateCache.invalidateAll();
+    }
+
+    // Bucket在状态缓存有效期内被外部删除时，写入会返回 NoSuchBucket：使缓存失效并重新检查（不存在时创建），
+    // 返回 true 表示调用方可以重试一次
+    private boolean recheckBucket(String bucketName, Exception e) throws MinioException {
+        if (!(e instanceof ErrorResponseException error) || error.errorResponse() == null
+                || !"NoSuchBucket".equals(error.errorResponse().code())) {
+            return false;
+        }
+        logger.warn("Bucket已不存在，重新检查后重试: {}", bucketName);
+        bucketStateCache.invalidate(bucketName);
+        checkAndCreateBucket(bucketName);
+        return true;
+    }
+
+    private void ensureBucket(String bucketName) throws Exception {
+        try (MinioMetrics.Operation operation = metrics.start(MinioMetrics.BUCKET)) {
+            logger.info("检查Bucket是否存在: {}", bucketName);
+            boolean isExist = clientPool.execute(client ->
+                    client.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build()));
             if (!isExist) {
                 logger.info("Bucket不存在，正在创建: {}", bucketName);
-                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
-                logger.info("Bucket创建成功: {}", bucketName);
+                try {
+                    clientPool.execute(client -> {
+                        client.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+                        return null;
+                    });
+                    logger.info("Bucket创建成功: {}", bucketName);
+                } catch (ErrorResponseException e) {
+                    // 其他实例抢先创建了同名Bucket，视为已存在
+                    if (!"BucketAlreadyOwnedByYou".equals(e.errorResponse().code())) {
+                        throw e;
+                    }
+                    logger.info("Bucket已被并发创建: {}", bucketName);
+                }
             } else {
                 logger.info("Bucket已存在: {}", bucketName);
             }
-        } catch (Exception e) {
-            logger.error("Bucket操作失败: {}", bucketName, e);
-            throw MinioException.bucketNotFound(bucketName);
+            operation.succeeded();
         }
     }
 
-    // 上传文件
+    // 上传文件（长度未知，按配置的分片大小进行分片上传）
     public String uploadFile(String bucketName, String objectName, InputStream inputStream) throws MinioException {
+        return uploadFile(bucketName, objectName, inputStream, -1, null);
+    }
+
+    // 上传文件，objectSize 为 -1 表示长度未知；每次只缓冲一个分片，内存占用与文件大小无关
+    public String uploadFile(String bucketName, String objectName, InputStream inputStream,
+                             long objectSize, String contentType) throws MinioException {
         try {
             checkAndCreateBucket(bucketName);
-            minioClient.putObject(PutObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(objectName)
-                    .stream(inputStream, inputStream.available(), -1)
-                    .build());
+            // SDK 读完第一个分片才发出第一个请求，保留这部分数据，Bucket被外部删除时可以从头重试
+            ReplayableInputStream replayable = new ReplayableInputStream(inputStream,
+                    resolvePartSize(objectSize) + REPLAY_MARGIN);
+            try {
+                putObject(bucketName, objectName, replayable, objectSize, contentType);
+            } catch (Exception e) {
+                InputStream replay;
+                if (!recheckBucket(bucketName, e) || (replay = replayable.replay()) == null) {
+                    throw e;
+                }
+                putObject(bucketName, objectName, replay, objectSize, contentType);
+            }
             return "上传成功";
+        } catch (MinioException e) {
+            throw e;
         } catch (Exception e) {
             throw MinioException.uploadFailed(objectName, e);
         }
     }
 
-    // 获取文件信息
-    public StatObjectResponse getFileInfo(String bucketName, String objectName) throws MinioException {
+    // 批量上传：Bucket只检查一次，文件在虚拟线程上并发上传，并发数受 minio.upload.batch-concurrency 限制
+    // 单个文件失败不影响其他文件，结果顺序与输入一致
+    public List<BatchUploadResult> uploadFiles(String bucketName, List<BatchUploadItem> items) throws MinioException {
+        checkAndCreateBucket(bucketName);
+        Semaphore permits = new Semaphore(Math.max(1, batchUploadConcurrency));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<BatchUploadResult>> futures = new ArrayList<>(items.size());
+            for (BatchUploadItem item : items) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return uploadBatchItem(bucketName, item);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<BatchUploadResult> results = new ArrayList<>(items.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(BatchUploadResult.failed(items.get(i), MinioException.UPLOAD_ERROR_CODE,
+                            e.getCause().getMessage()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw MinioException.uploadFailed(items.get(i).objectName(), e);
+                }
+            }
+            return results;
+        }
+    }
+
+    private BatchUploadResult uploadBatchItem(String bucketName, BatchUploadItem item) {
+        if (item.objectName() == null || item.objectName().isBlank()) {
+            metrics.recordError(MinioException.INVALID_ARGUMENT_ERROR_CODE);
+            return BatchUploadResult.failed(item, MinioException.INVALID_ARGUMENT_ERROR_CODE,
+                    "未指定对象名，且文件没有原始文件名");
+        }
+        try {
+            try (InputStream inputStream = item.source().open()) {
+                putObject(bucketName, item.objectName(), inputStream, item.size(), item.contentType());
+            } catch (Exception e) {
+                if (!recheckBucket(bucketName, e)) {
+                    throw e;
+                }
+                try (InputStream inputStream = item.source().open()) {
+                    putObject(bucketName, item.objectName(), inputStream, item.size(), item.contentType());
+                }
+            }
+            return BatchUploadResult.succeeded(item, "上传成功");
+        } catch (Exception e) {
+            logger.error("批量上传单个文件失败: bucket={}, object={}", bucketName, item.objectName(), e);
+            MinioException error = e instanceof MinioException minioException
+                    ? minioException
+                    : MinioException.uploadFailed(item.objectName(), e);
+            metrics.recordError(error.getErrorCode());
+            return BatchUploadResult.failed(item, error.getErrorCode(), error.getMessage());
+        }
+    }
+
+    // 创建分片上传会话，分块大小按 totalSize 计算（未知时为 -1），保证分块数不超过 MinIO 的上限
+    public UploadSession startUploadSession(String bucketName, String objectName, String contentType,
+                                            long totalSize) throws MinioException {
+        checkAndCreateBucket(bucketName);
+        long chunkSize = resolvePartSize(totalSize);
+        if (chunkSize > maxChunkSize.toBytes()) {
+            throw MinioException.fileSizeExceeded(objectName, totalSize,
+                    maxChunkSize.toBytes() * ObjectWriteArgs.MAX_MULTIPART_COUNT);
+        }
+        try {
+            String uploadId;
+            try {
+                uploadId = clientPool.executeRaw(client -> client.initiateUpload(bucketName, objectName, contentType));
+            } catch (Exception e) {
+                if (!recheckBucket(bucketName, e)) {
+                    throw e;
+                }
+                uploadId = clientPool.executeRaw(client -> client.initiateUpload(bucketName, objectName, contentType));
+            }
+            logger.info("创建上传会话: bucket={}, object={}, uploadId={}, chunkSize={}",
+                    bucketName, objectName, uploadId, chunkSize);
+            return UploadSession.of(bucketName, objectName, uploadId, chunkSize);
+        } catch (MinioException e) {
+            throw e;
+        } catch (Exception e) {
+            throw MinioException.uploadFailed(objectName, e);
+        }
+    }
+
+    // 上传一个分块（即一个分片），分块可以并行、乱序到达，同一编号重复上传时覆盖；
+    // 数据直接从请求体转给MinIO，不在本服务中拼接。失败时不重试，由客户端重传该分块
+    public UploadSessionProgress.Chunk uploadChunk(String sessionId, int chunkNumber, InputStream inputStream,
+                                                   long length) throws MinioException {
+        UploadSession session = UploadSession.parse(sessionId);
+        if (chunkNumber < 1 || chunkNumber > ObjectWriteArgs.MAX_MULTIPART_COUNT) {
+            throw MinioException.invalidArgument("chunkNumber",
+                    "分块编号必须在 1 到 " + ObjectWriteArgs.MAX_MULTIPART_COUNT + " 之间");
+        }
+        if (length <= 0) {
+            throw MinioException.invalidArgument("Content-Length", "分块上传需要 Content-Length，且不能为 0");
+        }
+        if (length > maxChunkSize.toBytes()) {
+            throw MinioException.fileSizeExceeded(session.objectName() + "#" + chunkNumber, length,
+                    maxChunkSize.toBytes());
+        }
+        try (MinioMetrics.Operation operation = metrics.start(MinioMetrics.UPLOAD)) {
+            String etag = clientPool.executeRawOnce(client -> client.uploadPart(session.bucketName(),
+                    session.objectName(), session.uploadId(), chunkNumber, inputStream, length));
+            operation.succeeded();
+            metrics.addBytes(MinioMetrics.UPLOAD, length);
+            return new UploadSessionProgress.Chunk(chunkNumber, length, etag, ZonedDateTime.now());
+        } catch (Exception e) {
+            throw uploadSessionFailure(session, e);
+        }
+    }
+
+    // 查询上传进度（从MinIO列出已上传的分片）
+    public UploadSessionProgress getUploadSessionProgress(String sessionId) throws MinioException {
+        UploadSession session = UploadSession.parse(sessionId);
+        return progressOf(session, listChunks(session), null);
+    }
+
+    // 完成上传：分块必须从 1 开始连续编号，chunkCount 不为空时还必须恰好有 chunkCount 块；
+    // 除最后一块外每块不小于 5MB。合并在MinIO中完成
+    public UploadSessionProgress completeUploadSession(String sessionId, Integer chunkCount) throws MinioException {
+        UploadSession session = UploadSession.parse(sessionId);
+        if (chunkCount != null && (chunkCount < 1 || chunkCount > ObjectWriteArgs.MAX_MULTIPART_COUNT)) {
+            throw MinioException.invalidArgument("chunkCount",
+                    "chunkCount 必须在 1 到 " + ObjectWriteArgs.MAX_MULTIPART_COUNT + " 之间");
+        }
+        List<Part> parts = listChunks(session);
+        int expected = chunkCount != null ? chunkCount : parts.isEmpty() ? 0 : parts.get(parts.size() - 1).partNumber();
+        List<Integer> missing = new ArrayList<>();
+        List<Integer> tooSmall = new ArrayList<>();
+        int next = 1;
+        for (Part part : parts) {
+            while (next < part.partNumber() && next <= expected) {
+                missing.add(next++);
+            }
+            if (part.partNumber() > expected) {
+                throw MinioException.invalidArgument("chunkCount",
+                        "已上传编号为 " + part.partNumber() + " 的分块，超过了 chunkCount " + expected);
+            }
+            if (part.partNumber() < expected && part.partSize() < ObjectWriteArgs.MIN_MULTIPART_SIZE) {
+                tooSmall.add(part.partNumber());
+            }
+            next = part.partNumber() + 1;
+        }
+        while (next <= expected) {
+            missing.add(next++);
+        }
+        if (expected == 0 || !missing.isEmpty()) {
+            throw MinioException.invalidArgument("chunks", "分块不完整，缺少：" + (expected == 0 ? "全部" : missing));
+        }
+        if (!tooSmall.isEmpty()) {
+            throw MinioException.invalidArgument("chunks", "除最后一块外每块不能小于 5MB：" + tooSmall);
+        }
+
+        try {
+            List<Part> completed = parts.stream().map(part -> new Part(part.partNumber(), part.etag())).toList();
+            String etag = clientPool.executeRaw(client -> client.completeUpload(session.bucketName(),
+                    session.objectName(), session.uploadId(), completed));
+            logger.info("上传会话完成: bucket={}, object={}, chunks={}, etag={}",
+                    session.bucketName(), session.objectName(), parts.size(), etag);
+            return progressOf(session, parts, etag);
+        } catch (Exception e) {
+            throw uploadSessionFailure(session, e);
+        } finally {
+            metadataCache.invalidate(session.bucketName(), session.objectName());
+            localObjectCache.invalidate(session.bucketName(), session.objectName());
+        }
+    }
+
+    // 放弃上传，MinIO删除已上传的分片
+    public void abortUploadSession(String sessionId) throws MinioException {
+        UploadSession session = UploadSession.parse(sessionId);
+        try {
+            clientPool.executeRaw(client -> {
+                client.abortUpload(session.bucketName(), session.objectName(), session.uploadId());
+                return null;
+            });
+            logger.info("上传会话已放弃: bucket={}, object={}", session.bucketName(), session.objectName());
+        } catch (Exception e) {
+            throw uploadSessionFailure(session, e);
+        }
+    }
+
+    private List<Part> listChunks(UploadSession session) throws MinioException {
+        try {
+            return clientPool.executeRaw(client ->
+                    client.listParts(session.bucketName(), session.objectName(), session.uploadId()));
+        } catch (Exception e) {
+            throw uploadSessionFailure(session, e);
+        }
+    }
+
+    private static UploadSessionProgress progressOf(UploadSession session, List<Part> parts, String etag) {
+        List<UploadSessionProgress.Chunk> chunks = parts.stream()
+                .map(part -> new UploadSessionProgress.Chunk(part.partNumber(), part.partSize(), part.etag(),
+                        part.lastModified()))
+                .toList();
+        long uploadedBytes = chunks.stream().mapToLong(UploadSessionProgress.Chunk::size).sum();
+        return new UploadSessionProgress(session.sessionId(), session.bucketName(), session.objectName(),
+                chunks.size(), uploadedBytes, etag, chunks);
+    }
+
+    // 分片上传不存在（已完成、已放弃或被MinIO清理）时返回 404
+    private static MinioException uploadSessionFailure(UploadSession session, Exception e) {
+        if (e instanceof MinioException minioException) {
+            return minioException;
+        }
+        if (e instanceof ErrorResponseException response && "NoSuchUpload".equals(response.errorResponse().code())) {
+            return MinioException.uploadSessionNotFound(session.sessionId());
+        }
+        logger.error("上传会话操作失败: bucket={}, object={}, uploadId={}",
+                session.bucketName(), session.objectName(), session.uploadId(), e);
+        return MinioException.uploadFailed(session.objectName(), e);
+    }
+
+    // 开启内容去重时边上传边计算 SHA-256，成功后记录到哈希索引
+    private void putObject(String bucketName, String objectName, InputStream inputStream,
+                           long objectSize, String contentType) throws Exception {
+        long partSize = resolvePartSize(objectSize);
+        logger.debug("上传文件: bucket={}, object={}, size={}, partSize={}", bucketName, objectName, objectSize, partSize);
+        // 大小未知（-1）的流式上传按实际读取的字节数统计
+        ByteCountingInputStream counting = new ByteCountingInputStream(inputStream);
+        ContentIndex.HashingInputStream hashing = contentIndex == null
+                ? null
+                : new ContentIndex.HashingInputStream(counting);
+        PutObjectArgs.Builder builder = PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .stream(hashing == null ? counting : hashing, objectSize, partSize);
+        if (contentType != null && !contentType.isBlank()) {
+            builder.contentType(contentType);
+        }
+        try (MinioMetrics.Operation operation = metrics.start(MinioMetrics.UPLOAD)) {
+            PutObjectArgs args = builder.build();
+            ObjectWriteResponse response = clientPool.executeOnce(client -> client.putObject(args));
+            operation.succeeded();
+            metrics.addBytes(MinioMetrics.UPLOAD, counting.count());
+            // SDK 在读取数据流失败时可能返回 null 而不抛出异常，此时内容不完整，不记录索引
+            if (hashing != null && response != null && response.etag() != null) {
+                indexContent(bucketName, objectName, hashing, response.etag());
+            }
+        } finally {
+            // 无论成功与否对象都可能已变化
+            metadataCache.invalidate(bucketName, objectName);
+            localObjectCache.invalidate(bucketName, objectName);
+        }
+    }
+
+    // 记录上传内容的哈希，失败只影响之后的去重，不影响本次上传
+    private void indexContent(String bucketName, String objectName, ContentIndex.HashingInputStream hashing,
+                              String etag) {
+        String sha256 = hashing.sha256();
+        try {
+            checkAndCreateBucket(contentIndex.indexBucket());
+            contentIndex.put(bucketName, sha256, objectName, etag, hashing.size());
+            logger.debug("记录内容哈希: bucket={}, object={}, sha256={}", bucketName, objectName, sha256);
+        } catch (Exception e) {
+            logger.warn("记录内容哈希失败: bucket={}, object={}, sha256={}", bucketName, objectName, sha256, e);
+        }
+    }
+
+    // 按内容哈希上传（minio.dedup.enabled）：Bucket中已有 SHA-256 相同的对象时在服务端复制为 objectName，
+    // 客户端不需要上传内容；未开启去重、没有相同内容或索引已过期时返回 null，由客户端正常上传。
+    // 索引只在同一Bucket内查找，知道哈希的客户端只能复制它本来就能写入的Bucket中的内容
+    public DeduplicatedUpload uploadByHash(String bucketName, String objectName, String sha256,
+                                           String contentType) throws MinioException {
+        if (sha256 == null || !SHA256_PATTERN.matcher(sha256).matches()) {
+            throw MinioException.invalidArgument("sha256", "必须是 64 位十六进制的 SHA-256");
+        }
+        if (contentIndex == null) {
+            return null;
+        }
+        String hash = sha256.toLowerCase(Locale.ROOT);
+        checkAndCreateBucket(bucketName);
+        try (MinioMetrics.Operation operation = metrics.start(MinioMetrics.COPY)) {
+            ContentIndex.Entry entry = contentIndex.find(bucketName, hash);
+            DeduplicatedUpload result = entry == null ? null : copyIndexed(bucketName, objectName, hash, entry, contentType);
+            operation.succeeded();
+            return result;
+        } catch (MinioException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("按内容哈希上传失败: bucket={}, object={}, sha256={}", bucketName, objectName, hash, e);
+            throw MinioException.uploadFailed(objectName, e);
+        } finally {
+            metadataCache.invalidate(bucketName, objectName);
+            localObjectCache.invalidate(bucketName, objectName);
+        }
+    }
+
+    // 以索引中的 ETag 为条件复制，源对象已被覆盖或删除时删除过期索引并返回 null
+    private DeduplicatedUpload copyIndexed(String bucketName, String objectName, String sha256,
+                                           ContentIndex.Entry entry, String contentType) throws Exception {
         try {
-            return minioClient.statObject(StatObjectArgs.builder()
+            String etag;
+            if (entry.objectName().equals(objectName)) {
+                // 目标就是索引中的对象，内容未变时无需复制
+                StatObjectResponse stat = clientPool.execute(client -> client.statObject(StatObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .matchETag(entry.etag())
+                        .build()));
+                etag = stat.etag();
+            } else {
+                CopyObjectArgs.Builder builder = CopyObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .source(CopySource.builder()
+                                .bucket(bucketName)
+                                .object(entry.objectName())
+                                .matchETag(entry.etag())
+                                .build());
+                if (contentType != null && !contentType.isBlank()) {
+                    builder.headers(Map.of("Content-Type", contentType)).metadataDirective(Directive.REPLACE);
+                }
+                CopyObjectArgs args = builder.build();
+                etag = clientPool.execute(client -> client.copyObject(args)).etag();
+            }
+            logger.info("内容去重命中: bucket={}, object={}, source={}, sha256={}",
+                    bucketName, objectName, entry.objectName(), sha256);
+            return new DeduplicatedUpload(bucketName, objectName, entry.objectName(), sha256, entry.size(),
+                    etag == null ? entry.etag() : etag.replace("\"", ""));
+        } catch (ErrorResponseException e) {
+            int status = e.response() == null ? 0 : e.response().code();
+            if (status != 404 && status != 412) {
+                throw e;
+            }
+            logger.debug("内容哈希索引已过期: bucket={}, object={}, sha256={}", bucketName, entry.objectName(), sha256);
+            contentIndex.remove(bucketName, sha256);
+            return null;
+        }
+    }
+
+    // 计算分片大小：不小于配置值，且已知大小时保证分片数不超过 MinIO 的上限
+    long resolvePartSize(long objectSize) {
+        long partSize = Math.max(uploadPartSize.toBytes(), ObjectWriteArgs.MIN_MULTIPART_SIZE);
+        if (objectSize > 0) {
+            long minPartSize = (objectSize + ObjectWriteArgs.MAX_MULTIPART_COUNT - 1) / ObjectWriteArgs.MAX_MULTIPART_COUNT;
+            // 向上取整到 1MB，避免出现奇怪的分片大小
+            long mb = DataSize.ofMegabytes(1).toBytes();
+            minPartSize = (minPartSize + mb - 1) / mb * mb;
+            partSize = Math.max(partSize, minPartSize);
+        }
+        return Math.min(partSize, ObjectWriteArgs.MAX_PART_SIZE);
+    }
+
+    // 预签名上传URL：先确认Bucket存在（缓存有效期内不访问MinIO），之后客户端直接向MinIO上传；
+    // 上传不经过本服务，元数据缓存依赖 minio.metadata-cache.notification 失效；contentType 不为空时参与签名
+    public PresignedRequest presignUpload(String bucketName, String objectName, Duration expiry,
+                                          String contentType) throws MinioException {
+        checkAndCreateBucket(bucketName);
+        return presigner.presignPut(bucketName, objectName, expiry, contentType);
+    }
+
+    // 浏览器表单上传的POST策略，对象名、大小和类型由MinIO按策略校验
+    public PresignedRequest presignPostPolicy(String bucketName, String objectName, Duration expiry,
+                                              String contentTypePrefix, DataSize maxSize) throws MinioException {
+        checkAndCreateBucket(bucketName);
+        return presigner.presignPost(bucketName, objectName, expiry, contentTypePrefix, maxSize);
+    }
+
+    // 预签名下载URL，只在本地签名，对象不存在时由MinIO返回 404
+    public PresignedRequest presignDownload(String bucketName, String objectName, Duration expiry,
+                                            String downloadName) throws MinioException {
+        return presigner.presignGet(bucketName, objectName, expiry, downloadName);
+    }
+
+    // 获取文件信息（优先读取元数据缓存）
+    public StatObjectResponse getFileInfo(String bucketName, String objectName) throws MinioException {
+        StatObjectResponse cached = metadataCache.get(bucketName, objectName);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = metadataCache.generation();
+        try (MinioMetrics.Operation operation = metrics.start(MinioMetrics.STAT)) {
+            StatObjectArgs args = StatObjectArgs.builder()
                     .bucket(bucketName)
                     .object(objectName)
-                    .build());
+                    .build();
+            StatObjectResponse stat = clientPool.executeHedged("statObject", client -> client.statObject(args));
+            metadataCache.put(bucketName, objectName, stat, generation);
+            operation.succeeded();
+            return stat;
+        } catch (MinioException e) {
+            throw e;
         } catch (Exception e) {
             throw MinioException.fileNotFound(objectName);
         }
     }
 
-    // 下载文件到本地
-    public String downloadFile(String bucketName, String objectName, String localFilePath) throws MinioException {
-        logger.info("开始下载文件: bucket={}, object={}, localPath={}", bucketName, objectName, localFilePath);
-        
-        // 1. 检查文件是否存在
+    // 列出对象：按 ListObjectsV2 逐页向MinIO请求，返回的迭代器同一时间只持有一页；
+    // delimiter 为空时递归列出全部对象，否则按 delimiter 折叠为公共前缀。最多列出 limit 条（0 表示不限），
+    // 只在页边界停止，continuationToken 为上次列出后 ObjectListing.continuationToken() 返回的令牌
+    public ObjectListing listObjects(String bucketName, String prefix, String delimiter, String startAfter,
+                                     String continuationToken, long limit) {
+        return new ObjectListing(clientPool, metrics, bucketName, prefix, delimiter, startAfter, continuationToken,
+                limit <= 0 ? Long.MAX_VALUE : limit);
+    }
+
+    // 使对象元数据缓存失效，对象被其他进程修改或删除后调用
+    public void invalidateFileInfo(String bucketName, String objectName) {
+        metadataCache.invalidate(bucketName, objectName);
+    }
+
+    // 使某个Bucket下的全部对象元数据缓存失效
+    public void invalidateFileInfos(String bucketName) {
+        metadataCache.invalidateBucket(bucketName);
+    }
+
+    // 对象元数据缓存的命中、未命中、淘汰等统计
+    public Map<String, Object> getMetadataCacheStats() {
+        return metadataCache.stats();
+    }
+
+    // 批量查询文件信息：边读取 keys 边在虚拟线程上并发 statObject，同时进行的查询数受 minio.stat.batch-concurrency 限制，
+    // 结果按完成顺序交给 consumer（会被多个线程并发调用），keys 和结果都不会整体保存在内存中
+    public void statObjects(Iterator<ObjectKey> keys, Consumer<ObjectStatResult> consumer) throws MinioException {
+        Semaphore permits = new Semaphore(Math.max(1, batchStatConcurrency));
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long index = 0;
+            while (failure.get() == null && keys.hasNext()) {
+                ObjectKey key = keys.next();
+                long current = index++;
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        consumer.accept(statQuietly(current, key));
+                    } catch (RuntimeException e) {
+                        // 结果写出失败（如客户端断开），停止读取后续对象
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinioException(MinioException.DEFAULT_ERROR_CODE, "批量查询被中断", e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private ObjectStatResult statQuietly(long index, ObjectKey key) {
+        try {
+            return ObjectStatResult.found(index, key, getFileInfo(key.bucketName(), key.objectName()));
+        } catch (MinioException e) {
+            metrics.recordError(e.getErrorCode());
+            return ObjectStatResult.failed(index, key, e.getErrorCode(), e.getMessage());
+        }
+    }
+
+    // 批量删除：边读取 objectNames 边按每批最多 1000 个对象调用 removeObjects（一次 DeleteObjects 请求），
+    // 同时进行的批次数受 minio.delete.batch-concurrency 限制，内存中最多保存这些批次的对象名。
+    // 删除失败的对象交给 onError（会被多个线程并发调用），对象元数据缓存和本地缓存随每批失效
+    public BulkDeleteResult deleteObjects(String bucketName, Iterator<String> objectNames,
+                                          Consumer<ObjectDeleteError> onError) throws MinioException {
+        Semaphore permits = new Semaphore(Math.max(1, batchDeleteConcurrency));
+        AtomicLong failed = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long requested = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (failure.get() == null && objectNames.hasNext()) {
+                List<String> batch = new ArrayList<>(MAX_DELETE_BATCH_SIZE);
+                while (batch.size() < MAX_DELETE_BATCH_SIZE && objectNames.hasNext()) {
+                    batch.add(objectNames.next());
+                }
+                requested += batch.size();
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        for (ObjectDeleteError error : deleteBatch(bucketName, batch)) {
+                            failed.incrementAndGet();
+                            onError.accept(error);
+                        }
+                    } catch (RuntimeException e) {
+                        // 结果写出失败（如客户端断开），停止读取后续对象
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinioException(MinioException.DEFAULT_ERROR_CODE, "批量删除被中断", e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return new BulkDeleteResult(bucketName, requested, requested - failed.get(), failed.get());
+    }
+
+    // prefix 下全部对象的名称，按 ListObjectsV2 逐页列出，可以边列出边交给 deleteObjects 删除；
+    // 返回前先取第一页，Bucket不存在等错误在这里抛出
+    public Iterator<String> listObjectNames(String bucketName, String prefix) throws MinioException {
+        ObjectListing objects = listObjects(bucketName, prefix, null, null, null, 0);
+        objects.hasNext();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return objects.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return objects.next().name();
+            }
+        };
+    }
+
+    // 删除一批对象，返回删除失败的对象；请求本身失败（连接失败、Bucket不存在等）时整批都算失败
+    private List<ObjectDeleteError> deleteBatch(String bucketName, List<String> objectNames) {
+        List<ObjectDeleteError> errors = new ArrayList<>();
+        List<DeleteObject> objects = objectNames.stream().map(DeleteObject::new).toList();
+        try (MinioMetrics.Operation operation = metrics.start(MinioMetrics.DELETE)) {
+            // removeObjects 在遍历结果时才发出请求，请求失败时 Result.get() 抛出异常，交给连接池重试
+            List<DeleteError> deleteErrors = clientPool.execute(client -> {
+                List<DeleteError> results = new ArrayList<>();
+                for (Result<DeleteError> result : client.removeObjects(RemoveObjectsArgs.builder()
+                        .bucket(bucketName)
+                        .objects(objects)
+                        .build())) {
+                    results.add(result.get());
+                }
+                return results;
+            });
+            for (DeleteError deleteError : deleteErrors) {
+                String errorCode = deleteErrorCode(bucketName, deleteError.code());
+                errors.add(new ObjectDeleteError(deleteError.objectName(), errorCode, deleteError.message()));
+            }
+            operation.succeeded();
+        } catch (Exception e) {
+            logger.error("批量删除失败: bucket={}, count={}", bucketName, objectNames.size(), e);
+            String errorCode = e instanceof MinioException minioException
+                    ? minioException.getErrorCode()
+                    : e instanceof ErrorResponseException errorResponse
+                    ? deleteErrorCode(bucketName, errorResponse.errorResponse().code())
+                    : MinioException.DEFAULT_ERROR_CODE;
+            String message = "删除失败：" + e.getMessage();
+            for (String objectName : objectNames) {
+                errors.add(new ObjectDeleteError(objectName, errorCode, message));
+            }
+        } finally {
+            for (String objectName : objectNames) {
+                metadataCache.invalidate(bucketName, objectName);
+                localObjectCache.invalidate(bucketName, objectName);
+            }
+        }
+        for (ObjectDeleteError error : errors) {
+            metrics.recordError(error.errorCode());
+        }
+        return errors;
+    }
+
+    // 把 S3 的错误码转换为 MinioException 的错误码；Bucket不存在时同时使Bucket状态缓存失效
+    private String deleteErrorCode(String bucketName, String code) {
+        return switch (code == null ? "" : code) {
+            case "NoSuchBucket" -> {
+                bucketStateCache.invalidate(bucketName);
+                yield MinioException.BUCKET_NOT_FOUND_ERROR_CODE;
+            }
+            case "AccessDenied" -> MinioException.PERMISSION_ERROR_CODE;
+            case "NoSuchKey" -> MinioException.FILE_NOT_FOUND_ERROR_CODE;
+            default -> MinioException.DEFAULT_ERROR_CODE;
+        };
+    }
+
+    // 是否开启了本地磁盘缓存
+    public boolean isLocalCacheEnabled() {
+        return localObjectCache.isEnabled();
+    }
+
+    // 查询本地磁盘缓存，命中时返回已打开的缓存文件（调用方关闭），否则返回 null
+    public FileChannel openLocalCachedFile(String bucketName, String objectName, String etag) {
+        return localObjectCache.open(bucketName, objectName, etag);
+    }
+
+    // 边读取整个对象边写入本地磁盘缓存；对象过大或未开启缓存时直接返回MinIO数据流。
+    // fileInfo 为下载前查询的文件信息（可能来自缓存），与实际读取到的版本不同时使其失效
+    public InputStream readThroughLocalCache(GetObjectResponse response, StatObjectResponse fileInfo) {
+        StatObjectResponse actual = fileInfoOf(response);
+        // 以实际读取到的版本为准，避免文件信息缓存过期时把新内容存到旧 ETag 下
+        if (fileInfo != null && !Objects.equals(fileInfo.etag(), actual.etag())) {
+            invalidateFileInfo(response.bucket(), response.object());
+        }
+        return localObjectCache.readThrough(response.bucket(), response.object(), actual.etag(), actual.size(),
+                response);
+    }
+
+    // 本地磁盘缓存的统计
+    public Map<String, Object> getLocalCacheStats() {
+        return localObjectCache.stats();
+    }
+
+    // 立即检查各MinIO节点，返回是否可用和检查耗时
+    public List<Map<String, Object>> checkHealth() {
+        return clientPool.checkHealth();
+    }
+
+    // 重试次数和熔断拒绝次数
+    public Map<String, Object> getRetryStats() {
+        return clientPool.retryStats();
+    }
+
+    // 读请求对冲的次数、胜出次数和当前对冲延迟
+    public Map<String, Object> getHedgingStats() {
+        return clientPool.hedgingStats();
+    }
+
+    // 各MinIO节点的健康状态、未完成请求数和延迟
+    public List<Map<String, Object>> getEndpointStats() {
+        return clientPool.stats();
+    }
+
+    // 获取文件流，offset/length 指定字节范围，length 为 -1 表示读到末尾
+    public InputStream getObject(String bucketName, String objectName, long offset, long length) throws MinioException {
+        return getObject(bucketName, objectName, offset, length, null);
+    }
+
+    // 按 ETag 条件获取文件流：范围和大小来自之前查询（可能已缓存）的文件信息时，保证读到的是同一版本。
+    // 版本不一致时文件信息缓存失效，抛出 MINIO_OBJECT_CHANGED
+    public InputStream getObject(String bucketName, String objectName, long offset, long length,
+                                 String matchETag) throws MinioException {
         try {
-            StatObjectResponse stat = minioClient.statObject(StatObjectArgs.builder()
+            GetObjectArgs.Builder args = GetObjectArgs.builder()
                     .bucket(bucketName)
-                    .object(objectName)
-                    .build());
-            logger.info("文件存在，大小: {} bytes", stat.size());
+                    .object(objectName);
+            if (offset > 0 || length >= 0) {
+                args.offset(offset);
+            }
+            if (length >= 0) {
+                args.length(length);
+            }
+            if (matchETag != null) {
+                args.matchETag(matchETag);
+            }
+            GetObjectArgs getObjectArgs = args.build();
+            return clientPool.executeHedged("getObject", client -> client.getObject(getObjectArgs));
+        } catch (MinioException e) {
+            throw e;
+        } catch (ErrorResponseException e) {
+            if ("PreconditionFailed".equals(e.errorResponse().code())) {
+                invalidateFileInfo(bucketName, objectName);
+                throw MinioException.objectChanged(objectName);
+            }
+            throw MinioException.downloadFailed(objectName, e);
+        } catch (Exception e) {
+            throw MinioException.downloadFailed(objectName, e);
+        }
+    }
+
+    // 打开对象流，大小、类型、ETag 等元数据从响应头获取，不再单独 statObject
+    // notMatchETag/modifiedSince 为条件请求，对象未变化时返回 null（MinIO 响应 304）
+    public GetObjectResponse openObject(String bucketName, String objectName, long offset, long length,
+                                        String notMatchETag, ZonedDateTime modifiedSince) throws MinioException {
+        try {
+            GetObjectArgs.Builder args = GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName);
+            if (offset > 0 || length >= 0) {
+                args.offset(offset);
+            }
+            if (length >= 0) {
+                args.length(length);
+            }
+            if (notMatchETag != null) {
+                args.notMatchETag(notMatchETag);
+            }
+            if (modifiedSince != null) {
+                args.modifiedSince(modifiedSince);
+            }
+            GetObjectArgs getObjectArgs = args.build();
+            return clientPool.executeHedged("getObject", client -> client.getObject(getObjectArgs));
+        } catch (MinioException e) {
+            throw e;
+        } catch (ServerException e) {
+            if (e.statusCode() == 304) {
+                return null;
+            }
+            logger.error("文件不存在或无法访问: bucket={}, object={}", bucketName, objectName, e);
+            throw MinioException.fileNotFound(objectName);
+        } catch (ErrorResponseException e) {
+            if ("InvalidRange".equals(e.errorResponse().code())) {
+                throw MinioException.rangeNotSatisfiable(objectName);
+            }
+            logger.error("文件不存在或无法访问: bucket={}, object={}", bucketName, objectName, e);
+            throw MinioException.fileNotFound(objectName);
         } catch (Exception e) {
             logger.error("文件不存在或无法访问: bucket={}, object={}", bucketName, objectName, e);
             throw MinioException.fileNotFound(objectName);
         }
-        
+    }
+
+    // 从 GetObject 响应头构造文件信息，范围请求时 size 为本次返回的字节数
+    public static StatObjectResponse fileInfoOf(GetObjectResponse response) {
+        return new StatObjectResponse(response.headers(), response.bucket(), response.region(), response.object());
+    }
+
+    // 对象总大小：范围请求取 Content-Range 中的总长度，否则取 Content-Length
+    public static long objectSizeOf(GetObjectResponse response) {
+        String contentRange = response.headers().get("Content-Range");
+        if (contentRange != null && contentRange.lastIndexOf('/') >= 0) {
+            String total = contentRange.substring(contentRange.lastIndexOf('/') + 1).trim();
+            if (!"*".equals(total)) {
+                return Long.parseLong(total);
+            }
+        }
+        return fileInfoOf(response).size();
+    }
+
+    // 下载文件到本地
+    public String downloadFile(String bucketName, String objectName, String localFilePath) throws MinioException {
+        logger.info("开始下载文件: bucket={}, object={}, localPath={}", bucketName, objectName, localFilePath);
+
+        try (MinioMetrics.Operation operation = metrics.start(MinioMetrics.DOWNLOAD)) {
+            // 1. 打开对象流，同时从响应头得到文件大小和ETag（启用分段下载时只请求第一个分段）
+            GetObjectResponse response = openFirstPart(bucketName, objectName);
+            long objectSize = objectSizeOf(response);
+            String etag = fileInfoOf(response).etag();
+            logger.info("文件存在，大小: {} bytes", objectSize);
+
+            try {
+                String result = downloadToLocal(bucketName, objectName, localFilePath, response, objectSize, etag);
+                operation.succeeded();
+                metrics.addBytes(MinioMetrics.DOWNLOAD, objectSize);
+                return result;
+            } finally {
+                closeQuietly(response);
+            }
+        }
+    }
+
+    // 打开下载所需的第一个请求；空对象不支持范围请求，此时退回整个对象
+    private GetObjectResponse openFirstPart(String bucketName, String objectName) throws MinioException {
+        long firstLength = rangedDownloader.firstRangeLength();
+        try {
+            return openObject(bucketName, objectName, 0, firstLength, null, null);
+        } catch (MinioException e) {
+            if (firstLength < 0 || !MinioException.RANGE_NOT_SATISFIABLE_ERROR_CODE.equals(e.getErrorCode())) {
+                throw e;
+            }
+            return openObject(bucketName, objectName, 0, -1, null, null);
+        }
+    }
+
+    private String downloadToLocal(String bucketName, String objectName, String localFilePath,
+                                   InputStream stream, long objectSize, String etag) throws MinioException {
         // 2. 处理本地路径
         Path path = Paths.get(localFilePath);
         
@@ -127,27 +1020,150 @@ public class MinioService {
             logger.info("文件已存在，重命名为: {}", finalPath.getFileName());
         }
         
-        // 5. 下载文件是
-        try (InputStream stream = minioClient.getObject(GetObjectArgs.builder()
-                .bucket(bucketName)
-                .object(objectName)
-                .build());
-             OutputStream outputStream = Files.newOutputStream(finalPath)) {
+        // 5. 先写入同目录下的临时文件，完成后原子重命名为目标文件
+        Path tempPath;
+        try {
+            tempPath = FileTransfers.createTempFile(finalPath);
+        } catch (IOException e) {
+            logger.error("无法创建临时文件: {}", finalPath, e);
+            throw MinioException.downloadFailed(objectName, e);
+        }
 
-            byte[] buf = new byte[8192]; // 增加缓冲区大小
-            int bytesRead;
-            long totalBytes = 0;
-            
-            while ((bytesRead = stream.read(buf)) != -1) {
-                outputStream.write(buf, 0, bytesRead);
-                totalBytes += bytesRead;
+        try {
+            long totalBytes;
+            if (rangedDownloader.shouldUse(objectSize)) {
+                // 大文件分段并行下载，第一个分段复用已打开的流
+                totalBytes = rangedDownloader.download(bucketName, objectName, etag, objectSize, tempPath, stream);
+                logger.info("文件分段下载完成: {}, 总字节数: {}", finalPath, totalBytes);
+            } else {
+                // 小文件单流下载，通过池化的直接缓冲区写盘
+                try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                    totalBytes = FileTransfers.transfer(stream, channel, 0, objectSize, downloadBuffers);
+                }
+                logger.info("文件下载完成: {}, 总字节数: {}", finalPath, totalBytes);
             }
-            
-            logger.info("文件下载完成: {}, 总字节数: {}", finalPath, totalBytes);
+            FileTransfers.moveIntoPlace(tempPath, finalPath);
             return "下载成功，文件大小: " + totalBytes + " bytes，保存路径: " + finalPath;
         } catch (Exception e) {
             logger.error("文件下载失败: bucket={}, object={}, localPath={}", bucketName, objectName, finalPath, e);
+            deleteQuietly(tempPath);
             throw MinioException.downloadFailed(objectName, e);
         }
     }
-}
\ No newline at end of file
+
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.warn("关闭流失败", e);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("清理未完成的下载文件失败: {}", path, e);
+        }
+    }
+
+    // 统计从数据流读取的字节数
+    private static final class ByteCountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        ByteCountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int read = super.read(buffer, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+
+    // 保留读取的前 limit 个字节，第一个请求失败时可以从头重新读取；读取超过 limit 后第一个请求已经成功，不再保留
+    private static final class ReplayableInputStream extends FilterInputStream {
+
+        private final long limit;
+        private ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+        private long count;
+
+        ReplayableInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                record(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int read = super.read(buffer, off, len);
+            if (read > 0) {
+                record(buffer, off, read);
+            }
+            return read;
+        }
+
+        // 跳过的字节也要记录，重新读取时才能保持位置一致
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] discard = new byte[(int) Math.min(Math.max(n, 0), 8192)];
+            long skipped = 0;
+            int read;
+            while (skipped < n && (read = read(discard, 0, (int) Math.min(discard.length, n - skipped))) > 0) {
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void record(byte[] buffer, int off, int len) {
+            count += len;
+            if (recorded == null) {
+                return;
+            }
+            if (count > limit) {
+                recorded = null;
+                return;
+            }
+            recorded.write(buffer, off, len);
+        }
+
+        /**
+         * 从头重新读取的流，已读取的数据超过 limit 时返回 null
+         */
+        InputStream replay() {
+            return recorded == null ? null
+                    : new SequenceInputStream(new ByteArrayInputStream(recorded.toByteArray()), in);
+        }
+    }
+}
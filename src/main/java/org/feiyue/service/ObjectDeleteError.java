@@ -0,0 +1,10 @@
+package org.feiyue.service;
+
+/**
+ * 批量删除中删除失败的单个对象，errorCode 为 MinioException 的错误码
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record ObjectDeleteError(String objectName, String errorCode, String message) {
+}
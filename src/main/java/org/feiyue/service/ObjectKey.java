@@ -0,0 +1,10 @@
+package org.feiyue.service;
+
+/**
+ * 对象标识：Bucket名称 + 对象名称
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record ObjectKey(String bucketName, String objectName) {
+}
@@ -0,0 +1,108 @@
+package org.feiyue.service;
+
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Item;
+import io.minio.messages.ListBucketResultV2;
+import io.minio.messages.Prefix;
+import org.feiyue.config.MinioClientPool;
+import org.feiyue.exception.MinioException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 按 ListObjectsV2 逐页列出对象，同一时间只持有一页（最多 1000 条）
+ * 每页的对象和公共前缀合并后按名称排序返回。最多列出 limit 条，且只在页边界停止：
+ * 每页请求的条数不超过剩余条数，停止时 continuationToken() 即为MinIO的续列令牌，下次从这里继续
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public class ObjectListing implements Iterator<ListedObject> {
+
+    // ListObjectsV2 单次请求的最大条目数
+    private static final int MAX_KEYS_PER_PAGE = 1000;
+
+    private final MinioClientPool clientPool;
+    private final MinioMetrics metrics;
+    private final String bucketName;
+    private final String prefix;
+    private final String delimiter;
+    private final String startAfter;
+    private long remaining;
+    private String continuationToken;
+    private boolean started;
+    private Iterator<ListedObject> page = List.<ListedObject>of().iterator();
+
+    ObjectListing(MinioClientPool clientPool, MinioMetrics metrics, String bucketName, String prefix,
+                  String delimiter, String startAfter, String continuationToken, long limit) {
+        this.clientPool = clientPool;
+        this.metrics = metrics;
+        this.bucketName = bucketName;
+        this.prefix = prefix == null ? "" : prefix;
+        this.delimiter = delimiter == null || delimiter.isEmpty() ? null : delimiter;
+        this.startAfter = startAfter == null || startAfter.isEmpty() ? null : startAfter;
+        this.continuationToken = continuationToken == null || continuationToken.isEmpty() ? null : continuationToken;
+        this.remaining = limit;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext() && remaining > 0 && (!started || continuationToken != null)) {
+            page = fetchPage();
+        }
+        return page.hasNext();
+    }
+
+    @Override
+    public ListedObject next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        remaining--;
+        return page.next();
+    }
+
+    /**
+     * 遍历结束后还有未列出的条目时返回续列令牌，否则返回 null
+     */
+    public String continuationToken() {
+        return page.hasNext() ? null : continuationToken;
+    }
+
+    private Iterator<ListedObject> fetchPage() {
+        int maxKeys = (int) Math.min(MAX_KEYS_PER_PAGE, remaining);
+        String token = continuationToken;
+        ListBucketResultV2 result;
+        try (MinioMetrics.Operation operation = metrics.start(MinioMetrics.LIST)) {
+            result = clientPool.executeRaw(client -> client.listObjectsPage(bucketName, prefix, delimiter,
+                    token == null ? startAfter : null, token, maxKeys));
+            operation.succeeded();
+        } catch (MinioException e) {
+            throw e;
+        } catch (ErrorResponseException e) {
+            if ("NoSuchBucket".equals(e.errorResponse().code())) {
+                throw MinioException.bucketNotFound(bucketName);
+            }
+            throw new MinioException(MinioException.DEFAULT_ERROR_CODE, "列出对象失败：" + bucketName, e);
+        } catch (Exception e) {
+            throw new MinioException(MinioException.DEFAULT_ERROR_CODE, "列出对象失败：" + bucketName, e);
+        }
+        started = true;
+        continuationToken = result.isTruncated() ? result.nextContinuationToken() : null;
+
+        List<ListedObject> entries = new ArrayList<>(result.contents().size() + result.commonPrefixes().size());
+        for (Item item : result.contents()) {
+            entries.add(new ListedObject(item.objectName(), false, item.size(),
+                    item.etag() == null ? null : item.etag().replace("\"", ""), item.lastModified()));
+        }
+        for (Prefix commonPrefix : result.commonPrefixes()) {
+            entries.add(new ListedObject(commonPrefix.toItem().objectName(), true, null, null, null));
+        }
+        entries.sort(Comparator.comparing(ListedObject::name));
+        return entries.iterator();
+    }
+}
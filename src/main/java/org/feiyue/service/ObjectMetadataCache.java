@@ -0,0 +1,210 @@
+package org.feiyue.service;
+
+import io.minio.StatObjectResponse;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 对象元数据缓存
+ * 以 bucket + object 为键缓存 statObject 结果，条目数超过上限时按最近最少使用淘汰，
+ * 超过 TTL 的条目视为未命中；记录命中、未命中和淘汰次数。
+ * 失效时为该键（或整个Bucket）记下失效代数，只有同一个键在查询期间失效过才放弃写入，
+ * 其他键的失效不影响正在进行的查询
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class ObjectMetadataCache {
+
+    private record Entry(StatObjectResponse stat, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<ObjectKey, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // 每次失效都会递增，用于丢弃失效发生前就已开始的 statObject 结果
+    private final AtomicLong generation = new AtomicLong();
+
+    // 各键、各Bucket最近一次失效时的代数
+    private final Tombstones<ObjectKey> objectTombstones;
+    private final Tombstones<String> bucketTombstones;
+
+    ObjectMetadataCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        this.objectTombstones = new Tombstones<>(Math.max(1, maxEntries));
+        this.bucketTombstones = new Tombstones<>(Math.max(1, maxEntries));
+        // accessOrder = true，迭代顺序即最近最少使用顺序
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ObjectKey, Entry> eldest) {
+                if (size() > ObjectMetadataCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0 && ttlNanos > 0;
+    }
+
+    /**
+     * 查询缓存，未命中或已过期时返回 null
+     */
+    StatObjectResponse get(String bucketName, String objectName) {
+        if (!isEnabled()) {
+            return null;
+        }
+        ObjectKey key = new ObjectKey(bucketName, objectName);
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return entry.stat;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 当前失效代数，查询MinIO之前获取，写入缓存时传回
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 写入缓存；查询期间该键或其所在Bucket失效过时放弃写入，避免旧数据覆盖刚失效的条目
+     */
+    void put(String bucketName, String objectName, StatObjectResponse stat, long generationBefore) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            ObjectKey key = new ObjectKey(bucketName, objectName);
+            if (objectTombstones.invalidatedAfter(key, generationBefore)
+                    || bucketTombstones.invalidatedAfter(bucketName, generationBefore)) {
+                return;
+            }
+            entries.put(key, new Entry(stat, System.nanoTime() + ttlNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void invalidate(String bucketName, String objectName) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            ObjectKey key = new ObjectKey(bucketName, objectName);
+            objectTombstones.record(key, generation.incrementAndGet());
+            if (entries.remove(key) != null) {
+                invalidations.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 使某个Bucket下的全部条目失效
+     */
+    void invalidateBucket(String bucketName) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            bucketTombstones.record(bucketName, generation.incrementAndGet());
+            int before = entries.size();
+            entries.keySet().removeIf(key -> key.bucketName().equals(bucketName));
+            invalidations.addAndGet(before - entries.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    Map<String, Object> stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlNanos / 1_000_000_000L);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    /**
+     * 失效记录：键到最近一次失效代数，按写入顺序最多保留 capacity 条；
+     * 淘汰的记录并入 floor，早于 floor 开始的查询一律放弃写入，不会因为淘汰而漏掉失效
+     * 调用方持有 lock
+     */
+    private static final class Tombstones<K> {
+
+        private final int capacity;
+        private final LinkedHashMap<K, Long> generations = new LinkedHashMap<>();
+        private long floor;
+
+        Tombstones(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void record(K key, long generation) {
+            // 先移除再写入，使最近失效的键排在最后
+            generations.remove(key);
+            generations.put(key, generation);
+            if (generations.size() > capacity) {
+                Iterator<Map.Entry<K, Long>> eldest = generations.entrySet().iterator();
+                floor = Math.max(floor, eldest.next().getValue());
+                eldest.remove();
+            }
+        }
+
+        boolean invalidatedAfter(K key, long generationBefore) {
+            Long invalidated = generations.get(key);
+            return floor > generationBefore || (invalidated != null && invalidated > generationBefore);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.feiyue.service;
+
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.PostPolicy;
+import io.minio.http.Method;
+import org.feiyue.exception.MinioException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预签名 URL 和浏览器表单上传的 POST 策略
+ * 客户端拿到后直接与MinIO传输数据，本服务只负责授权。签名在本地完成，不访问MinIO：
+ * 使用单独的客户端，地址为客户端能访问到的 minio.presign.endpoint，并固定区域，避免 SDK 为获取区域请求 getBucketLocation
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@Component
+public class ObjectPresigner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectPresigner.class);
+
+    // SigV4 预签名的最长有效期
+    private static final Duration MAX_SIGNATURE_EXPIRY = Duration.ofDays(7);
+
+    private final MinioClient signer;
+    private final String endpoint;
+    private final Duration defaultExpiry;
+    private final Duration maxExpiry;
+    private final long maxObjectSize;
+
+    public ObjectPresigner(@Value("${minio.presign.endpoint:}") String presignEndpoint,
+                           @Value("${minio.endpoint}") String minioEndpoint,
+                           @Value("${minio.presign.region:us-east-1}") String region,
+                           @Value("${minio.access-key}") String accessKey,
+                           @Value("${minio.secret-key}") String secretKey,
+                           @Value("${minio.presign.expiry:15m}") Duration defaultExpiry,
+                           @Value("${minio.presign.max-expiry:7d}") Duration maxExpiry,
+                           @Value("${minio.presign.max-object-size:5GB}") DataSize maxObjectSize) {
+        String url = presignEndpoint.isBlank() ? minioEndpoint : presignEndpoint.trim();
+        this.endpoint = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.signer = MinioClient.builder()
+                .endpoint(endpoint)
+                .region(region)
+                .credentials(accessKey, secretKey)
+                .build();
+        this.maxExpiry = maxExpiry.compareTo(MAX_SIGNATURE_EXPIRY) > 0 ? MAX_SIGNATURE_EXPIRY : maxExpiry;
+        this.defaultExpiry = defaultExpiry.compareTo(this.maxExpiry) > 0 ? this.maxExpiry : defaultExpiry;
+        this.maxObjectSize = maxObjectSize.toBytes();
+        logger.info("预签名地址: {}, 区域: {}, 默认有效期: {}, 最长有效期: {}", endpoint, region,
+                this.defaultExpiry, this.maxExpiry);
+    }
+
+    /**
+     * 预签名 PUT 上传 URL，请求体即对象内容
+     * contentType 不为空时作为 Content-Type 请求头参与签名，客户端上传时必须携带相同的 Content-Type，
+     * 对象以该类型保存；为空时不限制，MinIO 按请求中的 Content-Type 保存
+     *
+     * @param expiry 有效期，为 null 时使用 minio.presign.expiry
+     */
+    public PresignedRequest presignPut(String bucketName, String objectName, Duration expiry,
+                                       String contentType) throws MinioException {
+        Duration validFor = validExpiry(expiry);
+        Map<String, String> headers = contentType == null || contentType.isBlank()
+                ? Map.of()
+                : Map.of(HttpHeaders.CONTENT_TYPE, validContentType(contentType));
+        String url = presign(Method.PUT, bucketName, objectName, validFor, headers, Map.of());
+        return new PresignedRequest(bucketName, objectName, "PUT", url, Map.of(), headers, Instant.now().plus(validFor));
+    }
+
+    /**
+     * 预签名 GET 下载 URL
+     *
+     * @param downloadName 不为空时MinIO以该文件名返回 Content-Disposition: attachment，浏览器直接另存为
+     */
+    public PresignedRequest presignGet(String bucketName, String objectName, Duration expiry,
+                                       String downloadName) throws MinioException {
+        Duration validFor = validExpiry(expiry);
+        Map<String, String> queryParams = downloadName == null || downloadName.isBlank()
+                ? Map.of()
+                : Map.of("response-content-disposition", ContentDisposition.attachment()
+                        .filename(downloadName, StandardCharsets.UTF_8).build().toString());
+        String url = presign(Method.GET, bucketName, objectName, validFor, Map.of(), queryParams);
+        return new PresignedRequest(bucketName, objectName, "GET", url, Map.of(), Map.of(), Instant.now().plus(validFor));
+    }
+
+    /**
+     * 浏览器表单上传的 POST 策略：对象名固定为 objectName，大小不超过 maxSize，
+     * 表单须包含 Content-Type 字段，contentTypePrefix 不为空时必须以其开头（如 image/）
+     *
+     * @param maxSize 允许的最大字节数，为 null 时使用 minio.presign.max-object-size
+     */
+    public PresignedRequest presignPost(String bucketName, String objectName, Duration expiry,
+                                        String contentTypePrefix, DataSize maxSize) throws MinioException {
+        Duration validFor = validExpiry(expiry);
+        long sizeLimit = maxSize == null ? maxObjectSize : maxSize.toBytes();
+        if (sizeLimit <= 0 || sizeLimit > maxObjectSize) {
+            throw MinioException.invalidArgument("maxSize",
+                    "maxSize 必须大于 0 且不超过 " + DataSize.ofBytes(maxObjectSize).toMegabytes() + "MB");
+        }
+        if (objectName == null || objectName.isEmpty()) {
+            throw MinioException.invalidArgument("objectName", "对象名称不能为空");
+        }
+        Instant expiresAt = Instant.now().plus(validFor);
+        try {
+            PostPolicy policy = new PostPolicy(bucketName, expiresAt.atZone(ZoneOffset.UTC));
+            policy.addEqualsCondition("key", objectName);
+            // MinIO拒绝策略中没有的表单字段，因此总是包含 Content-Type 条件，空前缀表示不限制
+            policy.addStartsWithCondition("Content-Type", contentTypePrefix == null ? "" : contentTypePrefix.trim());
+            policy.addContentLengthRangeCondition(0, sizeLimit);
+
+            Map<String, String> formData = new LinkedHashMap<>();
+            formData.put("key", objectName);
+            formData.putAll(signer.getPresignedPostFormData(policy));
+            return new PresignedRequest(bucketName, objectName, "POST", endpoint + "/" + bucketName,
+                    formData, Map.of(), expiresAt);
+        } catch (IllegalArgumentException e) {
+            throw MinioException.invalidArgument("bucketName", e.getMessage());
+        } catch (Exception e) {
+            throw new MinioException(MinioException.DEFAULT_ERROR_CODE, "生成POST策略失败：" + objectName, e);
+        }
+    }
+
+    private String presign(Method method, String bucketName, String objectName, Duration expiry,
+                           Map<String, String> headers, Map<String, String> queryParams) throws MinioException {
+        try {
+            return signer.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(method)
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .expiry((int) expiry.toSeconds(), TimeUnit.SECONDS)
+                    .extraHeaders(headers)
+                    .extraQueryParams(queryParams)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            // Bucket或对象名称不合法
+            throw MinioException.invalidArgument("bucketName/objectName", e.getMessage());
+        } catch (Exception e) {
+            throw new MinioException(MinioException.DEFAULT_ERROR_CODE, "生成预签名URL失败：" + objectName, e);
+        }
+    }
+
+    // 签名中的 Content-Type 须与客户端发送的值逐字相同，这里只校验格式，不做规范化
+    private String validContentType(String contentType) {
+        String value = contentType.trim();
+        try {
+            MediaType.parseMediaType(value);
+        } catch (InvalidMediaTypeException e) {
+            throw MinioException.invalidArgument("contentType", "Content-Type 格式不正确：" + value);
+        }
+        return value;
+    }
+
+    // 有效期至少 1 秒，且不超过 minio.presign.max-expiry
+    private Duration validExpiry(Duration expiry) {
+        if (expiry == null) {
+            return defaultExpiry;
+        }
+        if (expiry.getSeconds() < 1 || expiry.compareTo(maxExpiry) > 0) {
+            throw MinioException.invalidArgument("expiry", "有效期必须在 1s 到 " + maxExpiry.toSeconds() + "s 之间");
+        }
+        return expiry;
+    }
+}
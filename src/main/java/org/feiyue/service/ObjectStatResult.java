@@ -0,0 +1,27 @@
+package org.feiyue.service;
+
+import io.minio.StatObjectResponse;
+
+import java.time.ZonedDateTime;
+
+/**
+ * 批量查询中单个对象的结果，index 为该对象在请求中的位置；
+ * 查询失败时 exists 为 false，errorCode 为 MinioException 的错误码
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record ObjectStatResult(long index, String bucketName, String objectName, boolean exists,
+                               Long size, String etag, ZonedDateTime lastModified, String contentType,
+                               String errorCode, String message) {
+
+    static ObjectStatResult found(long index, ObjectKey key, StatObjectResponse stat) {
+        return new ObjectStatResult(index, key.bucketName(), key.objectName(), true,
+                stat.size(), stat.etag(), stat.lastModified(), stat.contentType(), null, null);
+    }
+
+    static ObjectStatResult failed(long index, ObjectKey key, String errorCode, String message) {
+        return new ObjectStatResult(index, key.bucketName(), key.objectName(), false,
+                null, null, null, null, errorCode, message);
+    }
+}
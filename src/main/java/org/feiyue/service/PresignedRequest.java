@@ -0,0 +1,16 @@
+package org.feiyue.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 预签名请求：客户端在 expiresAt 之前用 method 直接访问 url，不经过本服务；
+ * POST 表单上传时 formData 为需要原样提交的表单字段（文件字段 file 放在最后），其他情况为空；
+ * headers 为参与签名、请求时必须原样携带的请求头（如 PUT 上传指定的 Content-Type），没有时为空
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record PresignedRequest(String bucketName, String objectName, String method, String url,
+                               Map<String, String> formData, Map<String, String> headers, Instant expiresAt) {
+}
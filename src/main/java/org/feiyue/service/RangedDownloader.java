@@ -0,0 +1,165 @@
+package org.feiyue.service;
+
+import io.minio.GetObjectArgs;
+import org.feiyue.config.MinioClientPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分段并行下载器
+ * 将大对象按字节范围切分，多个分段同时通过 GetObjectArgs.offset/length 拉取，
+ * 并用 FileChannel 按位置写入预先分配好大小的本地文件；单个分段失败只重试该分段。
+ * 每个分段的请求只在连接池中执行一次，重试（含读取数据中途断开）统一由这里按 minio.retry 的退避进行，
+ * 不可重试的错误（对象已变化、不存在、范围无效）立即使整个下载失败
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class RangedDownloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(RangedDownloader.class);
+
+    private final MinioClientPool clientPool;
+    private final long partSize;
+    private final int parallelism;
+    private final int maxRetries;
+    private final DirectBufferPool buffers;
+
+    RangedDownloader(MinioClientPool clientPool, long partSize, int parallelism, int maxRetries,
+                     DirectBufferPool buffers) {
+        this.clientPool = clientPool;
+        this.partSize = partSize;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.buffers = buffers;
+    }
+
+    private boolean enabled() {
+        return parallelism > 1 && partSize > 0;
+    }
+
+    /**
+     * 首次请求应读取的长度：启用分段时只请求第一个分段，同时从响应头得到对象总大小；-1 表示整个对象
+     */
+    long firstRangeLength() {
+        return enabled() ? partSize : -1;
+    }
+
+    /**
+     * 对象超过一个分段且允许并行时才分段下载
+     */
+    boolean shouldUse(long objectSize) {
+        return enabled() && objectSize > partSize;
+    }
+
+    /**
+     * 分段下载到指定文件，etag 用于保证所有分段来自同一个对象版本；
+     * firstPart 为已经打开的第一个分段的数据流，第一次尝试直接使用它，失败后再单独重新请求
+     *
+     * @return 写入的总字节数
+     */
+    long download(String bucketName, String objectName, String etag, long objectSize, Path target,
+                  InputStream firstPart) throws Exception {
+        int partCount = (int) ((objectSize + partSize - 1) / partSize);
+        int workers = Math.min(parallelism, partCount);
+        logger.info("分段下载: bucket={}, object={}, size={}, parts={}, workers={}",
+                bucketName, objectName, objectSize, partCount, workers);
+
+        try (RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw")) {
+            // 预分配文件大小，各分段直接按偏移写入
+            file.setLength(objectSize);
+            FileChannel channel = file.getChannel();
+
+            AtomicInteger nextPart = new AtomicInteger();
+            AtomicBoolean failed = new AtomicBoolean();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+                for (int i = 0; i < workers; i++) {
+                    completion.submit(() -> {
+                        int part;
+                        while (!failed.get() && (part = nextPart.getAndIncrement()) < partCount) {
+                            long offset = part * partSize;
+                            long length = Math.min(partSize, objectSize - offset);
+                            InputStream opened = part == 0 ? firstPart : null;
+                            try {
+                                downloadPartWithRetry(bucketName, objectName, etag, offset, length, channel, opened,
+                                        failed);
+                            } catch (Exception e) {
+                                failed.set(true);
+                                throw e;
+                            }
+                        }
+                        return null;
+                    });
+                }
+                // 按完成顺序等待，任一分段失败时立即中断其余分段
+                for (int i = 0; i < workers; i++) {
+                    try {
+                        completion.take().get();
+                    } catch (ExecutionException e) {
+                        executor.shutdownNow();
+                        throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            channel.force(false);
+        }
+        return objectSize;
+    }
+
+    private void downloadPartWithRetry(String bucketName, String objectName, String etag, long offset, long length,
+                                       FileChannel channel, InputStream opened, AtomicBoolean failed)
+            throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (attempt == 0 && opened != null) {
+                    try (InputStream stream = opened) {
+                        FileTransfers.transfer(stream, channel, offset, length, buffers);
+                    }
+                } else {
+                    downloadPart(bucketName, objectName, etag, offset, length, channel);
+                }
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxRetries || failed.get() || !MinioClientPool.isRetryable(e)) {
+                    logger.error("分段下载失败: object={}, offset={}, length={}", objectName, offset, length, e);
+                    throw e;
+                }
+                // 与连接池的重试一样按指数退避等待，避免所有分段在节点过载时同时重新请求
+                long backoff = clientPool.backoffMillis(attempt + 1);
+                logger.warn("分段下载失败，{} 毫秒后重试({}/{}): object={}, offset={}, length={}, error={}",
+                        backoff, attempt + 1, maxRetries, objectName, offset, length, e.toString());
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    private void downloadPart(String bucketName, String objectName, String etag, long offset, long length,
+                              FileChannel channel) throws Exception {
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .offset(offset)
+                .length(length);
+        if (etag != null && !etag.isEmpty()) {
+            args.matchETag(etag);
+        }
+        GetObjectArgs getObjectArgs = args.build();
+        // 只执行一次，失败由 downloadPartWithRetry 重试，避免与连接池的重试叠加
+        try (InputStream stream = clientPool.executeOnce(client -> client.getObject(getObjectArgs))) {
+            FileTransfers.transfer(stream, channel, offset, length, buffers);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.feiyue.service;
+
+import org.feiyue.exception.MinioException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 分片上传会话：对应MinIO的一个分片上传（uploadId），客户端按编号上传分块，每个分块即一个分片。
+ * 会话状态全部保存在MinIO中，sessionId 由 bucket、uploadId、分块大小和对象名编码而成，服务重启或换实例后仍可继续上传
+ *
+ * @param chunkSize 建议的分块大小，除最后一块外每块不能小于 5MB
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record UploadSession(String sessionId, String bucketName, String objectName, String uploadId,
+                            long chunkSize) {
+
+    static UploadSession of(String bucketName, String objectName, String uploadId, long chunkSize) {
+        // Bucket名称和 uploadId 不含换行，对象名放在最后，可以包含任意字符
+        String raw = bucketName + "\n" + uploadId + "\n" + chunkSize + "\n" + objectName;
+        String sessionId = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        return new UploadSession(sessionId, bucketName, objectName, uploadId, chunkSize);
+    }
+
+    /**
+     * 解析 sessionId，格式错误时抛出 INVALID_ARGUMENT_ERROR_CODE
+     */
+    static UploadSession parse(String sessionId) throws MinioException {
+        try {
+            String[] fields = new String(Base64.getUrlDecoder().decode(sessionId), StandardCharsets.UTF_8)
+                    .split("\n", 4);
+            if (fields.length == 4 && !fields[0].isEmpty() && !fields[1].isEmpty() && !fields[3].isEmpty()) {
+                return new UploadSession(sessionId, fields[0], fields[3], fields[1], Long.parseLong(fields[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            // Base64 或分块大小格式错误
+        }
+        throw MinioException.invalidArgument("sessionId", "无效的上传会话：" + sessionId);
+    }
+}
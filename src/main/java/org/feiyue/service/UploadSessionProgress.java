@@ -0,0 +1,21 @@
+package org.feiyue.service;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * 上传会话的进度：已上传的分块（按编号排序）和总字节数，客户端据此只补传缺失或失败的分块；
+ * etag 为完成后对象的 ETag，未完成时为 null
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public record UploadSessionProgress(String sessionId, String bucketName, String objectName,
+                                    int uploadedChunks, long uploadedBytes, String etag, List<Chunk> chunks) {
+
+    /**
+     * 已上传的分块
+     */
+    public record Chunk(int chunkNumber, long size, String etag, ZonedDateTime lastModified) {
+    }
+}
@@ -0,0 +1,829 @@
+package org.feiyue.standin;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内的 S3 协议模拟服务，用于没有 MinIO 的环境下做集成测试和性能测试
+ * 支持 Bucket 的创建/查询/删除/列举、单次和分片上传（含 ListParts）、带 Range 和条件请求的 GetObject、HeadObject、
+ * DeleteObject、DeleteObjects（批量删除）、ListObjectsV2 和浏览器表单上传（POST 策略），并允许跨域访问；对象保存在内存中，不校验签名和策略。
+ * 可以注入固定延迟和随机抖动、限制每个请求的带宽、按比例返回 503 SlowDown，模拟慢节点和限流
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+public final class S3StandInServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3StandInServer.class);
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+    private static final String S3_NS = " xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"";
+    private static final String HEALTH_PATH = "/minio/health/";
+    private static final int MAX_KEYS = 1000;
+    // 限速时每次读写的最大字节数
+    private static final int THROTTLE_CHUNK = 16 * 1024;
+
+    // multipart/form-data 中各部分 Content-Disposition 的 name 和 filename
+    private static final Pattern FORM_NAME = Pattern.compile(";\\s*name=\"([^\"]*)\"");
+    private static final Pattern FORM_FILENAME = Pattern.compile(";\\s*filename=\"([^\"]*)\"");
+
+    // DeleteObjects 请求体中的对象名
+    private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+
+    // SDK 按两位日期解析 Last-Modified，不能用 RFC_1123_DATE_TIME
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter ISO_DATE =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    /**
+     * 注入的故障
+     *
+     * @param latency 每个请求处理前的固定延迟
+     * @param latencyJitter 在固定延迟之上再随机增加 0～latencyJitter
+     * @param bandwidth 每个请求读取请求体和写出响应体的速率（字节/秒），0 表示不限速
+     * @param errorRate 返回 503 SlowDown 的请求比例（0～1）
+     */
+    public record Faults(Duration latency, Duration latencyJitter, long bandwidth, double errorRate) {
+
+        public static final Faults NONE = new Faults(Duration.ZERO, Duration.ZERO, 0, 0);
+    }
+
+    private final HttpServer server;
+    private final Faults faults;
+    // jdk.httpserver 在 synchronized 中写 socket，会钉住虚拟线程的载体线程，客户端读得慢时阻塞其他请求，因此使用平台线程
+    private final ExecutorService executor = Executors.newCachedThreadPool(
+            Thread.ofPlatform().daemon().name("s3-standin-", 0).factory());
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, MultipartUpload> uploads = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    // 还需返回 503 的非首段范围读取数，见 failRangedGets
+    private final AtomicInteger rangedGetFailures = new AtomicInteger();
+
+    private S3StandInServer(HttpServer server, Faults faults) {
+        this.server = server;
+        this.faults = faults;
+    }
+
+    /**
+     * 在 127.0.0.1 上启动，port 为 0 时使用随机端口
+     */
+    public static S3StandInServer start(int port, Faults faults) throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        S3StandInServer standIn = new S3StandInServer(httpServer, faults);
+        httpServer.setExecutor(standIn.executor);
+        httpServer.createContext("/", standIn::handle);
+        httpServer.start();
+        logger.info("S3模拟服务已启动: {}, {}", standIn.endpoint(), faults);
+        return standIn;
+    }
+
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 直接放入一个对象（Bucket 不存在时创建），用于准备测试数据
+     */
+    public void putObject(String bucket, String key, byte[] data) {
+        buckets.computeIfAbsent(bucket, name -> new Bucket()).objects
+                .put(key, StoredObject.of(data, md5Hex(data), "application/octet-stream", Map.of()));
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * 之后 count 个起始位置大于 0 的范围 GetObject 请求返回 503 SlowDown，用于验证分段下载的重试；0 表示取消
+     */
+    public void failRangedGets(int count) {
+        rangedGetFailures.set(Math.max(0, count));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        logger.info("S3模拟服务已停止: {}", endpoint());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath();
+            if (path.startsWith(HEALTH_PATH)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            // 浏览器直接使用预签名URL和POST策略时需要跨域
+            Headers cors = exchange.getResponseHeaders();
+            cors.set("Access-Control-Allow-Origin", "*");
+            cors.set("Access-Control-Expose-Headers", "ETag");
+            if ("OPTIONS".equals(exchange.getRequestMethod())) {
+                cors.set("Access-Control-Allow-Methods", "GET, PUT, POST, DELETE, HEAD");
+                String requested = exchange.getRequestHeaders().getFirst("Access-Control-Request-Headers");
+                if (requested != null) {
+                    cors.set("Access-Control-Allow-Headers", requested);
+                }
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            requests.incrementAndGet();
+            if (!injectFaults(exchange)) {
+                return;
+            }
+
+            int slash = path.indexOf('/', 1);
+            String bucket = decode(slash < 0 ? path.substring(1) : path.substring(1, slash));
+            String key = slash < 0 ? "" : decode(path.substring(slash + 1));
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (bucket.isEmpty()) {
+                listBuckets(exchange);
+            } else if (key.isEmpty()) {
+                handleBucket(exchange, method, bucket, query);
+            } else {
+                handleObject(exchange, method, bucket, key, query);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("S3模拟服务处理请求失败: {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            throw e;
+        }
+    }
+
+    // 先等待注入的延迟，再按错误率返回 503；返回 false 表示请求已以错误结束
+    private boolean injectFaults(HttpExchange exchange) throws IOException, InterruptedException {
+        long delayNanos = faults.latency().toNanos();
+        if (!faults.latencyJitter().isZero()) {
+            delayNanos += ThreadLocalRandom.current().nextLong(faults.latencyJitter().toNanos() + 1);
+        }
+        if (delayNanos > 0) {
+            Thread.sleep(Duration.ofNanos(delayNanos));
+        }
+        if (faults.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < faults.errorRate()) {
+            injectedErrors.incrementAndGet();
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            sendError(exchange, 503, "SlowDown", "", "");
+            return false;
+        }
+        return true;
+    }
+
+    private void listBuckets(HttpExchange exchange) throws IOException, InterruptedException {
+        StringBuilder xml = new StringBuilder("<ListAllMyBucketsResult" + S3_NS + ">")
+                .append("<Owner><ID>standin</ID><DisplayName>standin</DisplayName></Owner><Buckets>");
+        new TreeMap<>(buckets).forEach((name, bucket) -> xml.append("<Bucket><Name>").append(escape(name))
+                .append("</Name><CreationDate>").append(ISO_DATE.format(bucket.created))
+                .append("</CreationDate></Bucket>"));
+        sendXml(exchange, 200, xml.append("</Buckets></ListAllMyBucketsResult>").toString());
+    }
+
+    private void handleBucket(HttpExchange exchange, String method, String bucket,
+                              Map<String, String> query) throws IOException, InterruptedException {
+        switch (method) {
+            case "GET" -> {
+                if (query.containsKey("location")) {
+                    sendXml(exchange, 200, "<LocationConstraint" + S3_NS + "></LocationConstraint>");
+                } else if (!buckets.containsKey(bucket)) {
+                    sendError(exchange, 404, "NoSuchBucket", bucket, "");
+                } else if ("2".equals(query.get("list-type"))) {
+                    listObjects(exchange, bucket, query);
+                } else {
+                    sendError(exchange, 501, "NotImplemented", bucket, "");
+                }
+            }
+            case "HEAD" -> exchange.sendResponseHeaders(buckets.containsKey(bucket) ? 200 : 404, -1);
+            case "POST" -> {
+                Bucket target = buckets.get(bucket);
+                if (target == null) {
+                    readBody(exchange);
+                    sendError(exchange, 404, "NoSuchBucket", bucket, "");
+                } else if (query.containsKey("delete")) {
+                    deleteObjects(exchange, target);
+                } else {
+                    postObject(exchange, target, bucket);
+                }
+            }
+            case "PUT" -> {
+                readBody(exchange);
+                if (buckets.putIfAbsent(bucket, new Bucket()) != null) {
+                    sendError(exchange, 409, "BucketAlreadyOwnedByYou", bucket, "");
+                    return;
+                }
+                exchange.getResponseHeaders().set("Location", "/" + bucket);
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "DELETE" -> {
+                Bucket existing = buckets.get(bucket);
+                if (existing == null) {
+                    sendError(exchange, 404, "NoSuchBucket", bucket, "");
+                } else if (!existing.objects.isEmpty()) {
+                    sendError(exchange, 409, "BucketNotEmpty", bucket, "");
+                } else {
+                    buckets.remove(bucket);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+            }
+            default -> sendError(exchange, 501, "NotImplemented", bucket, "");
+        }
+    }
+
+    // ListObjectsV2：按 key 排序，delimiter 之后的部分折叠为 CommonPrefixes，
+    // continuation-token 为上一页最后位置的 Base64（其中可能含有 XML 中不允许的字符）
+    private void listObjects(HttpExchange exchange, String bucket,
+                             Map<String, String> query) throws IOException, InterruptedException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.getOrDefault("delimiter", "");
+        int maxKeys = Math.min(MAX_KEYS, Integer.parseInt(query.getOrDefault("max-keys", String.valueOf(MAX_KEYS))));
+        String token = query.get("continuation-token");
+        String startAfter = token != null
+                ? new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                : query.getOrDefault("start-after", "");
+
+        NavigableMap<String, StoredObject> objects = buckets.get(bucket).objects;
+        NavigableMap<String, StoredObject> candidates = startAfter.compareTo(prefix) >= 0
+                ? objects.tailMap(startAfter, false)
+                : objects.tailMap(prefix, true);
+
+        StringBuilder contents = new StringBuilder();
+        TreeSet<String> commonPrefixes = new TreeSet<>();
+        int count = 0;
+        String last = null;
+        boolean truncated = false;
+        Iterator<Map.Entry<String, StoredObject>> iterator = candidates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, StoredObject> entry = iterator.next();
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            if (count >= maxKeys) {
+                truncated = true;
+                break;
+            }
+            int index = delimiter.isEmpty() ? -1 : key.indexOf(delimiter, prefix.length());
+            if (index >= 0) {
+                String commonPrefix = key.substring(0, index + delimiter.length());
+                if (commonPrefixes.add(commonPrefix)) {
+                    count++;
+                }
+                // 跳过同一前缀下的其余 key，下一页也从该前缀之后开始
+                last = commonPrefix + Character.MAX_VALUE;
+                iterator = candidates.tailMap(last, false).entrySet().iterator();
+                continue;
+            }
+            StoredObject object = entry.getValue();
+            contents.append("<Contents><Key>").append(escape(key)).append("</Key><LastModified>")
+                    .append(ISO_DATE.format(object.lastModified())).append("</LastModified><ETag>")
+                    .append(escape(object.etag())).append("</ETag><Size>").append(object.data().length)
+                    .append("</Size><StorageClass>STANDARD</StorageClass></Contents>");
+            count++;
+            last = key;
+        }
+
+        StringBuilder xml = new StringBuilder("<ListBucketResult" + S3_NS + ">")
+                .append("<Name>").append(escape(bucket)).append("</Name>")
+                .append("<Prefix>").append(escape(prefix)).append("</Prefix>")
+                .append("<KeyCount>").append(count).append("</KeyCount>")
+                .append("<MaxKeys>").append(maxKeys).append("</MaxKeys>")
+                .append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (!delimiter.isEmpty()) {
+            xml.append("<Delimiter>").append(escape(delimiter)).append("</Delimiter>");
+        }
+        if (token != null) {
+            xml.append("<ContinuationToken>").append(escape(token)).append("</ContinuationToken>");
+        }
+        if (truncated && last != null) {
+            xml.append("<NextContinuationToken>")
+                    .append(Base64.getUrlEncoder().encodeToString(last.getBytes(StandardCharsets.UTF_8)))
+                    .append("</NextContinuationToken>");
+        }
+        xml.append(contents);
+        for (String commonPrefix : commonPrefixes) {
+            xml.append("<CommonPrefixes><Prefix>").append(escape(commonPrefix)).append("</Prefix></CommonPrefixes>");
+        }
+        sendXml(exchange, 200, xml.append("</ListBucketResult>").toString());
+    }
+
+    // DeleteObjects：删除请求体中列出的全部对象，不存在的对象也视为删除成功；Quiet 为 true 时只返回错误
+    private void deleteObjects(HttpExchange exchange, Bucket target) throws IOException, InterruptedException {
+        String body = new String(readBody(exchange), StandardCharsets.UTF_8);
+        boolean quiet = body.contains("<Quiet>true</Quiet>");
+        StringBuilder xml = new StringBuilder("<DeleteResult" + S3_NS + ">");
+        Matcher key = DELETE_KEY.matcher(body);
+        while (key.find()) {
+            String name = unescape(key.group(1));
+            target.objects.remove(name);
+            if (!quiet) {
+                xml.append("<Deleted><Key>").append(escape(name)).append("</Key></Deleted>");
+            }
+        }
+        sendXml(exchange, 200, xml.append("</DeleteResult>").toString());
+    }
+
+    private void handleObject(HttpExchange exchange, String method, String bucket, String key,
+                              Map<String, String> query) throws IOException, InterruptedException {
+        Bucket target = buckets.get(bucket);
+        if (target == null) {
+            readBody(exchange);
+            sendError(exchange, 404, "NoSuchBucket", bucket, key);
+            return;
+        }
+        switch (method) {
+            case "PUT" -> {
+                byte[] data = readBody(exchange);
+                if (exchange.getRequestHeaders().containsKey("x-amz-copy-source")) {
+                    copyObject(exchange, target, bucket, key);
+                    return;
+                }
+                String uploadId = query.get("uploadId");
+                String etag;
+                if (uploadId != null) {
+                    MultipartUpload upload = uploads.get(uploadId);
+                    if (upload == null) {
+                        sendError(exchange, 404, "NoSuchUpload", bucket, key);
+                        return;
+                    }
+                    etag = md5Hex(data);
+                    upload.parts.put(Integer.parseInt(query.get("partNumber")), new Part(data, etag, Instant.now()));
+                } else {
+                    StoredObject object = StoredObject.of(data, md5Hex(data),
+                            exchange.getRequestHeaders().getFirst("Content-Type"),
+                            userMetadata(exchange.getRequestHeaders()));
+                    target.objects.put(key, object);
+                    etag = object.etag();
+                }
+                exchange.getResponseHeaders().set("ETag", "\"" + etag + "\"");
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "POST" -> {
+                readBody(exchange);
+                if (query.containsKey("uploads")) {
+                    String uploadId = UUID.randomUUID().toString();
+                    uploads.put(uploadId, new MultipartUpload(exchange.getRequestHeaders().getFirst("Content-Type"),
+                            userMetadata(exchange.getRequestHeaders())));
+                    sendXml(exchange, 200, "<InitiateMultipartUploadResult" + S3_NS + "><Bucket>" + escape(bucket)
+                            + "</Bucket><Key>" + escape(key) + "</Key><UploadId>" + uploadId
+                            + "</UploadId></InitiateMultipartUploadResult>");
+                } else if (query.containsKey("uploadId")) {
+                    completeUpload(exchange, target, bucket, key, query.get("uploadId"));
+                } else {
+                    sendError(exchange, 501, "NotImplemented", bucket, key);
+                }
+            }
+            case "DELETE" -> {
+                String uploadId = query.get("uploadId");
+                if (uploadId != null) {
+                    if (uploads.remove(uploadId) == null) {
+                        sendError(exchange, 404, "NoSuchUpload", bucket, key);
+                        return;
+                    }
+                } else {
+                    target.objects.remove(key);
+                }
+                exchange.sendResponseHeaders(204, -1);
+            }
+            case "GET", "HEAD" -> {
+                if ("GET".equals(method) && query.containsKey("uploadId")) {
+                    listParts(exchange, bucket, key, query);
+                    return;
+                }
+                StoredObject object = target.objects.get(key);
+                if (object == null) {
+                    sendError(exchange, 404, "NoSuchKey", bucket, key);
+                    return;
+                }
+                // 预签名下载URL指定的文件名
+                String disposition = query.get("response-content-disposition");
+                if (disposition != null) {
+                    exchange.getResponseHeaders().set("Content-Disposition", disposition);
+                }
+                sendObject(exchange, "HEAD".equals(method), bucket, key, object);
+            }
+            default -> sendError(exchange, 501, "NotImplemented", bucket, key);
+        }
+    }
+
+    // CopyObject：源对象为 x-amz-copy-source（/bucket/key），支持 x-amz-copy-source-if-match；
+    // x-amz-metadata-directive 为 REPLACE 时使用请求中的 Content-Type 和用户元数据
+    private void copyObject(HttpExchange exchange, Bucket target, String bucket,
+                            String key) throws IOException, InterruptedException {
+        Headers request = exchange.getRequestHeaders();
+        String source = decode(request.getFirst("x-amz-copy-source"));
+        int query = source.indexOf('?');
+        source = (query < 0 ? source : source.substring(0, query)).replaceFirst("^/", "");
+        int slash = source.indexOf('/');
+        Bucket sourceBucket = slash < 0 ? null : buckets.get(source.substring(0, slash));
+        StoredObject object = sourceBucket == null ? null : sourceBucket.objects.get(source.substring(slash + 1));
+        if (object == null) {
+            sendError(exchange, 404, "NoSuchKey", bucket, key);
+            return;
+        }
+        String ifMatch = request.getFirst("x-amz-copy-source-if-match");
+        if (ifMatch != null && !ifMatch.replace("\"", "").equals(object.etag())) {
+            sendError(exchange, 412, "PreconditionFailed", bucket, key);
+            return;
+        }
+        StoredObject copy = "REPLACE".equalsIgnoreCase(request.getFirst("x-amz-metadata-directive"))
+                ? StoredObject.of(object.data(), object.etag(), request.getFirst("Content-Type"), userMetadata(request))
+                : StoredObject.of(object.data(), object.etag(), object.contentType(), object.userMetadata());
+        target.objects.put(key, copy);
+        sendXml(exchange, 200, "<CopyObjectResult" + S3_NS + "><LastModified>"
+                + ISO_DATE.format(copy.lastModified()) + "</LastModified><ETag>\"" + copy.etag()
+                + "\"</ETag></CopyObjectResult>");
+    }
+
+    // ListParts：按分片号排序，从 part-number-marker 之后开始，每页最多 max-parts 个
+    private void listParts(HttpExchange exchange, String bucket, String key,
+                           Map<String, String> query) throws IOException, InterruptedException {
+        String uploadId = query.get("uploadId");
+        MultipartUpload upload = uploads.get(uploadId);
+        if (upload == null) {
+            sendError(exchange, 404, "NoSuchUpload", bucket, key);
+            return;
+        }
+        int maxParts = Math.min(MAX_KEYS, Integer.parseInt(query.getOrDefault("max-parts", String.valueOf(MAX_KEYS))));
+        int marker = Integer.parseInt(query.getOrDefault("part-number-marker", "0"));
+        NavigableMap<Integer, Part> remaining = upload.parts.tailMap(marker, false);
+        StringBuilder xml = new StringBuilder("<ListPartsResult" + S3_NS + "><Bucket>").append(escape(bucket))
+                .append("</Bucket><Key>").append(escape(key)).append("</Key><UploadId>").append(escape(uploadId))
+                .append("</UploadId><Initiator><ID>standin</ID><DisplayName>standin</DisplayName></Initiator>")
+                .append("<Owner><ID>standin</ID><DisplayName>standin</DisplayName></Owner>")
+                .append("<StorageClass>STANDARD</StorageClass><PartNumberMarker>").append(marker)
+                .append("</PartNumberMarker>");
+        int count = 0;
+        int last = marker;
+        StringBuilder parts = new StringBuilder();
+        for (Map.Entry<Integer, Part> entry : remaining.entrySet()) {
+            if (count == maxParts) {
+                break;
+            }
+            Part part = entry.getValue();
+            parts.append("<Part><PartNumber>").append(entry.getKey()).append("</PartNumber><LastModified>")
+                    .append(ISO_DATE.format(part.lastModified())).append("</LastModified><ETag>\"")
+                    .append(part.etag()).append("\"</ETag><Size>").append(part.data().length).append("</Size></Part>");
+            last = entry.getKey();
+            count++;
+        }
+        boolean truncated = count < remaining.size();
+        xml.append("<NextPartNumberMarker>").append(last).append("</NextPartNumberMarker><MaxParts>").append(maxParts)
+                .append("</MaxParts><IsTruncated>").append(truncated).append("</IsTruncated>").append(parts);
+        sendXml(exchange, 200, xml.append("</ListPartsResult>").toString());
+    }
+
+    // 浏览器表单上传：表单字段 key 为对象名（${filename} 替换为文件名），Content-Type 和 x-amz-meta-* 字段作为对象属性，
+    // 文件在字段 file 中
+    private void postObject(HttpExchange exchange, Bucket target, String bucket) throws IOException, InterruptedException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        byte[] body = readBody(exchange);
+        int boundaryAt = contentType == null ? -1 : contentType.indexOf("boundary=");
+        if (boundaryAt < 0) {
+            sendError(exchange, 400, "MalformedPOSTRequest", bucket, "");
+            return;
+        }
+        String boundary = contentType.substring(boundaryAt + "boundary=".length()).split(";", 2)[0].replace("\"", "");
+        byte[] delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        byte[] headerEnd = "\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        Map<String, String> fields = new HashMap<>();
+        byte[] file = null;
+        String fileName = "";
+        // 第一个分隔符前没有 CRLF，从 -2 开始查找使各部分处理一致
+        int position = indexOf(body, Arrays.copyOfRange(delimiter, 2, delimiter.length), 0) - 2;
+        while (position >= -2 && position + delimiter.length + 2 <= body.length
+                && body[position + delimiter.length] != '-') {
+            int headersStart = position + delimiter.length + 2;
+            int headersEnd = indexOf(body, headerEnd, headersStart);
+            int next = headersEnd < 0 ? -1 : indexOf(body, delimiter, headersEnd + headerEnd.length);
+            if (next < 0) {
+                break;
+            }
+            String partHeaders = new String(body, headersStart, headersEnd - headersStart, StandardCharsets.UTF_8);
+            byte[] content = Arrays.copyOfRange(body, headersEnd + headerEnd.length, next);
+            Matcher name = FORM_NAME.matcher(partHeaders);
+            if (name.find()) {
+                if ("file".equals(name.group(1))) {
+                    Matcher filename = FORM_FILENAME.matcher(partHeaders);
+                    fileName = filename.find() ? filename.group(1) : "";
+                    file = content;
+                } else {
+                    fields.put(name.group(1).toLowerCase(Locale.ROOT), new String(content, StandardCharsets.UTF_8));
+                }
+            }
+            position = next;
+        }
+
+        String key = fields.get("key");
+        if (file == null || key == null || key.isEmpty()) {
+            sendError(exchange, 400, "MalformedPOSTRequest", bucket, "");
+            return;
+        }
+        key = key.replace("${filename}", fileName);
+        Map<String, String> metadata = new HashMap<>();
+        fields.forEach((field, value) -> {
+            if (field.startsWith("x-amz-meta-")) {
+                metadata.put(field, value);
+            }
+        });
+        StoredObject object = StoredObject.of(file, md5Hex(file), fields.get("content-type"), metadata);
+        target.objects.put(key, object);
+        exchange.getResponseHeaders().set("ETag", "\"" + object.etag() + "\"");
+        exchange.getResponseHeaders().set("Location", "/" + bucket + "/" + key);
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    // 按分片号拼接对象；ETag 与 S3 相同，为各分片 MD5 拼接后的 MD5 加分片数
+    private void completeUpload(HttpExchange exchange, Bucket target, String bucket, String key,
+                                String uploadId) throws IOException, InterruptedException {
+        MultipartUpload upload = uploads.remove(uploadId);
+        if (upload == null) {
+            sendError(exchange, 404, "NoSuchUpload", bucket, key);
+            return;
+        }
+        ByteArrayOutputStream data = new ByteArrayOutputStream(
+                upload.parts.values().stream().mapToInt(part -> part.data().length).sum());
+        ByteArrayOutputStream digests = new ByteArrayOutputStream();
+        for (Part part : upload.parts.values()) {
+            data.writeBytes(part.data());
+            digests.writeBytes(HexFormat.of().parseHex(part.etag()));
+        }
+        String etag = md5Hex(digests.toByteArray()) + "-" + upload.parts.size();
+        StoredObject object = StoredObject.of(data.toByteArray(), etag, upload.contentType, upload.userMetadata);
+        target.objects.put(key, object);
+        sendXml(exchange, 200, "<CompleteMultipartUploadResult" + S3_NS + "><Location>/" + escape(bucket) + "/"
+                + escape(key) + "</Location><Bucket>" + escape(bucket) + "</Bucket><Key>" + escape(key)
+                + "</Key><ETag>\"" + etag + "\"</ETag></CompleteMultipartUploadResult>");
+    }
+
+    private void sendObject(HttpExchange exchange, boolean headOnly, String bucket, String key,
+                            StoredObject object) throws IOException, InterruptedException {
+        Headers request = exchange.getRequestHeaders();
+        Headers headers = exchange.getResponseHeaders();
+        String etag = "\"" + object.etag() + "\"";
+        headers.set("ETag", etag);
+        headers.set("Last-Modified", HTTP_DATE.format(object.lastModified()));
+
+        String ifMatch = request.getFirst("If-Match");
+        if (ifMatch != null && !ifMatch.replace("\"", "").equals(object.etag())) {
+            headers.remove("ETag");
+            headers.remove("Last-Modified");
+            sendError(exchange, 412, "PreconditionFailed", bucket, key);
+            return;
+        }
+        String ifNoneMatch = request.getFirst("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.equals(etag) || ifNoneMatch.equals(object.etag()))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        String ifModifiedSince = request.getFirst("If-Modified-Since");
+        if (ifModifiedSince != null && !object.lastModified().truncatedTo(ChronoUnit.SECONDS)
+                .isAfter(Instant.from(HTTP_DATE.parse(ifModifiedSince)))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        long size = object.data().length;
+        long start = 0;
+        long end = size - 1;
+        int status = 200;
+        String range = request.getFirst("Range");
+        if (range != null && range.startsWith("bytes=")) {
+            String[] bounds = range.substring("bytes=".length()).split("-", 2);
+            if (bounds[0].isEmpty()) {
+                start = Math.max(0, size - Long.parseLong(bounds[1]));
+            } else {
+                start = Long.parseLong(bounds[0]);
+                if (!bounds[1].isEmpty()) {
+                    end = Math.min(Long.parseLong(bounds[1]), size - 1);
+                }
+            }
+            if (start >= size) {
+                headers.remove("ETag");
+                headers.remove("Last-Modified");
+                sendError(exchange, 416, "InvalidRange", bucket, key);
+                return;
+            }
+            if (start > 0 && !headOnly && rangedGetFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                injectedErrors.incrementAndGet();
+                headers.remove("ETag");
+                headers.remove("Last-Modified");
+                sendError(exchange, 503, "SlowDown", bucket, key);
+                return;
+            }
+            status = 206;
+            headers.set("Content-Range", "bytes " + start + "-" + end + "/" + size);
+        }
+
+        headers.set("Content-Type", object.contentType());
+        headers.set("Accept-Ranges", "bytes");
+        object.userMetadata().forEach(headers::set);
+        long length = end - start + 1;
+        if (headOnly) {
+            headers.set("Content-Length", Long.toString(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            write(out, object.data(), (int) start, (int) length);
+        }
+    }
+
+    private byte[] readBody(HttpExchange exchange) throws IOException, InterruptedException {
+        InputStream in = exchange.getRequestBody();
+        if (faults.bandwidth() <= 0) {
+            return in.readAllBytes();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[THROTTLE_CHUNK];
+        long startNanos = System.nanoTime();
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+            total += read;
+            pace(startNanos, total);
+        }
+        return out.toByteArray();
+    }
+
+    private void write(OutputStream out, byte[] data, int offset, int length) throws IOException, InterruptedException {
+        if (faults.bandwidth() <= 0) {
+            out.write(data, offset, length);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        for (int written = 0; written < length; ) {
+            int count = Math.min(THROTTLE_CHUNK, length - written);
+            out.write(data, offset + written, count);
+            written += count;
+            pace(startNanos, written);
+        }
+    }
+
+    // 按带宽计算传输 bytes 字节应耗费的时间，实际更快时等待
+    private void pace(long startNanos, long bytes) throws InterruptedException {
+        long expectedNanos = bytes * 1_000_000_000L / faults.bandwidth();
+        long aheadNanos = expectedNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos > 0) {
+            Thread.sleep(Duration.ofNanos(aheadNanos));
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String code,
+                           String bucket, String key) throws IOException, InterruptedException {
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        String resource = "/" + bucket + (key.isEmpty() ? "" : "/" + key);
+        sendXml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + code + "</Message><BucketName>"
+                + escape(bucket) + "</BucketName><Key>" + escape(key) + "</Key><Resource>" + escape(resource)
+                + "</Resource><RequestId>standin</RequestId><HostId>standin</HostId></Error>");
+    }
+
+    private void sendXml(HttpExchange exchange, int status, String body) throws IOException, InterruptedException {
+        byte[] bytes = (XML_HEADER + body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            write(out, bytes, 0, bytes.length);
+        }
+    }
+
+    private static Map<String, String> userMetadata(Headers headers) {
+        Map<String, String> metadata = new HashMap<>();
+        headers.forEach((name, values) -> {
+            if (name.toLowerCase(Locale.ROOT).startsWith("x-amz-meta-") && !values.isEmpty()) {
+                metadata.put(name.toLowerCase(Locale.ROOT), values.get(0));
+            }
+        });
+        return metadata;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            query.put(decode(eq < 0 ? pair : pair.substring(0, eq)), eq < 0 ? "" : decode(pair.substring(eq + 1)));
+        }
+        return query;
+    }
+
+    // SDK 按 RFC 3986 编码，'+' 是字面字符而不是空格
+    private static String decode(String value) {
+        return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = Math.max(0, from); i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("'", "&apos;");
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static String md5Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Bucket {
+
+        final Instant created = Instant.now();
+        final ConcurrentSkipListMap<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+    }
+
+    private static final class MultipartUpload {
+
+        final String contentType;
+        final Map<String, String> userMetadata;
+        // 分片号 -> 分片，按分片号排序
+        final ConcurrentSkipListMap<Integer, Part> parts = new ConcurrentSkipListMap<>();
+
+        MultipartUpload(String contentType, Map<String, String> userMetadata) {
+            this.contentType = contentType;
+            this.userMetadata = userMetadata;
+        }
+    }
+
+    private record Part(byte[] data, String etag, Instant lastModified) {
+    }
+
+    private record StoredObject(byte[] data, String etag, String contentType, Map<String, String> userMetadata,
+                                Instant lastModified) {
+
+        static StoredObject of(byte[] data, String etag, String contentType, Map<String, String> userMetadata) {
+            return new StoredObject(data, etag, contentType == null ? "application/octet-stream" : contentType,
+                    Map.copyOf(userMetadata), Instant.now());
+        }
+    }
+}
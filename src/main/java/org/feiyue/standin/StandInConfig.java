@@ -0,0 +1,44 @@
+package org.feiyue.standin;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * standin 配置下启动内置的 S3 模拟服务，application-standin.yml 把 minio.endpoint 指向它，
+ * 无需 MinIO 即可运行整个应用（--spring.profiles.active=standin）
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@Configuration
+@Profile("standin")
+public class StandInConfig {
+
+    @Value("${minio.standin.port:9900}")
+    private int port;
+
+    // 注入的延迟、抖动、每个请求的带宽（每秒）和错误率
+    @Value("${minio.standin.latency:0ms}")
+    private Duration latency;
+
+    @Value("${minio.standin.latency-jitter:0ms}")
+    private Duration latencyJitter;
+
+    @Value("${minio.standin.bandwidth:0B}")
+    private DataSize bandwidth;
+
+    @Value("${minio.standin.error-rate:0}")
+    private double errorRate;
+
+    @Bean(destroyMethod = "close")
+    public S3StandInServer s3StandInServer() throws IOException {
+        return S3StandInServer.start(port, new S3StandInServer.Faults(latency, latencyJitter,
+                bandwidth.toBytes(), Math.min(Math.max(errorRate, 0), 1)));
+    }
+}
@@ -0,0 +1,148 @@
+package org.feiyue.controller;
+
+import org.feiyue.service.MinioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /download/stream 的范围请求和条件请求测试，经过内嵌 Tomcat，使用内置的 S3 模拟服务（standin 配置）代替 MinIO
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("standin")
+class MinioControllerDownloadTest {
+
+    private static final String BUCKET = "controller-test";
+    private static final String OBJECT = "download/object.bin";
+    private static final int SIZE = 64 * 1024;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final byte[] content = randomBytes(SIZE);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MinioService minioService;
+
+    @DynamicPropertySource
+    static void standInPort(DynamicPropertyRegistry registry) {
+        int standInPort = freePort();
+        registry.add("minio.standin.port", () -> standInPort);
+    }
+
+    @BeforeEach
+    void uploadObject() {
+        minioService.uploadFile(BUCKET, OBJECT, new ByteArrayInputStream(content), content.length,
+                "application/octet-stream");
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = download("Range", "bytes=100-199");
+
+        assertThat(response.statusCode()).isEqualTo(206);
+        assertThat(response.headers().firstValue("Content-Range")).hasValue("bytes 100-199/" + SIZE);
+        assertThat(response.body()).isEqualTo(Arrays.copyOfRange(content, 100, 200));
+    }
+
+    @Test
+    void suffixRangeReturnsPartialContent() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = download("Range", "bytes=-10");
+
+        assertThat(response.statusCode()).isEqualTo(206);
+        assertThat(response.headers().firstValue("Content-Range"))
+                .hasValue("bytes " + (SIZE - 10) + "-" + (SIZE - 1) + "/" + SIZE);
+        assertThat(response.body()).isEqualTo(Arrays.copyOfRange(content, SIZE - 10, SIZE));
+    }
+
+    @Test
+    void rangeStartingPastTheEndIsNotSatisfiable() throws IOException, InterruptedException {
+        for (String range : new String[]{"bytes=" + SIZE + "-", "bytes=" + SIZE + "-" + (SIZE + 10)}) {
+            HttpResponse<byte[]> response = download("Range", range);
+
+            assertThat(response.statusCode()).as(range).isEqualTo(416);
+            assertThat(response.headers().firstValue("Content-Range")).as(range).hasValue("bytes */" + SIZE);
+        }
+    }
+
+    @Test
+    void ifNoneMatchReturnsNotModifiedWithValidators() throws IOException, InterruptedException {
+        HttpResponse<byte[]> full = download(null, null);
+        String etag = full.headers().firstValue("ETag").orElseThrow();
+        String lastModified = full.headers().firstValue("Last-Modified").orElseThrow();
+
+        HttpResponse<byte[]> response = download("If-None-Match", etag);
+
+        assertThat(response.statusCode()).isEqualTo(304);
+        assertThat(response.body()).isEmpty();
+        assertThat(response.headers().firstValue("ETag")).hasValue(etag);
+        assertThat(response.headers().firstValue("Last-Modified")).hasValue(lastModified);
+    }
+
+    @Test
+    void ifModifiedSinceReturnsNotModifiedWithValidators() throws IOException, InterruptedException {
+        HttpResponse<byte[]> full = download(null, null);
+        String etag = full.headers().firstValue("ETag").orElseThrow();
+        String lastModified = full.headers().firstValue("Last-Modified").orElseThrow();
+
+        HttpResponse<byte[]> response = download("If-Modified-Since", lastModified);
+
+        assertThat(response.statusCode()).isEqualTo(304);
+        assertThat(response.body()).isEmpty();
+        assertThat(response.headers().firstValue("ETag")).hasValue(etag);
+        assertThat(response.headers().firstValue("Last-Modified")).hasValue(lastModified);
+    }
+
+    @Test
+    void staleETagReturnsFullContent() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = download("If-None-Match", "\"0123456789abcdef0123456789abcdef\"");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo(content);
+    }
+
+    private HttpResponse<byte[]> download(String header, String value) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                + "/api/minio/download/stream?bucketName=" + BUCKET + "&objectName=" + OBJECT)).GET();
+        if (header != null) {
+            request.header(header, value);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.feiyue.controller;
+
+import org.feiyue.exception.MinioException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MultipartStreamReader 的解析测试：分隔符跨越缓冲区、前导内容和填充空白、
+ * 文件内容中类似分隔符的字节、请求体截断、部分头和表单字段超长
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class MultipartStreamReaderTest {
+
+    private static final String BOUNDARY = "----feiyueBoundary7MA4YWxk";
+
+    @Test
+    void readsFieldsAndFile() throws IOException {
+        byte[] body = new MultipartBuilder()
+                .field("bucketName", "default-bucket")
+                .file("file", "a.txt", "text/plain", "hello".getBytes(StandardCharsets.UTF_8))
+                .build();
+        MultipartStreamReader reader = reader(body);
+
+        MultipartStreamReader.Part field = reader.next();
+        assertThat(field.name()).isEqualTo("bucketName");
+        assertThat(field.fileName()).isNull();
+        assertThat(MinioController.readField(field)).isEqualTo("default-bucket");
+
+        MultipartStreamReader.Part file = reader.next();
+        assertThat(file.name()).isEqualTo("file");
+        assertThat(file.fileName()).isEqualTo("a.txt");
+        assertThat(file.contentType()).isEqualTo("text/plain");
+        assertThat(new String(file.body().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("hello");
+
+        assertThat(reader.next()).isNull();
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void findsDelimiterSpanningBufferRefills() throws IOException {
+        byte[] content = randomBytes(200 * 1024);
+        byte[] body = new MultipartBuilder()
+                .file("file", "big.bin", "application/octet-stream", content)
+                .field("after", "value")
+                .build();
+        // 每次只读入少量字节，分隔符和部分头跨越多次 fill()；内容大于缓冲区，缓冲区会被多次整理
+        for (int chunk : new int[] {1, 7, 4093}) {
+            MultipartStreamReader reader = new MultipartStreamReader(
+                    new TrickleInputStream(new ByteArrayInputStream(body), chunk), BOUNDARY, 0);
+            MultipartStreamReader.Part file = reader.next();
+            assertThat(file.body().readAllBytes()).isEqualTo(content);
+            assertThat(MinioController.readField(reader.next())).isEqualTo("value");
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void skipsPreambleTransportPaddingAndEpilogue() throws IOException {
+        String body = "This is the preamble.\r\nIt should be ignored.\r\n"
+                + "--" + BOUNDARY + " \t \r\n"
+                + "Content-Disposition: form-data; name=\"a\"\r\n\r\n"
+                + "1"
+                + "\r\n--" + BOUNDARY + "  \r\n"
+                + "Content-Disposition: form-data; name=\"b\"\r\n\r\n"
+                + "2"
+                + "\r\n--" + BOUNDARY + "--\r\n"
+                + "This is the epilogue, also ignored.";
+        MultipartStreamReader reader = reader(body.getBytes(StandardCharsets.ISO_8859_1));
+
+        MultipartStreamReader.Part a = reader.next();
+        assertThat(a.name()).isEqualTo("a");
+        assertThat(MinioController.readField(a)).isEqualTo("1");
+        MultipartStreamReader.Part b = reader.next();
+        assertThat(b.name()).isEqualTo("b");
+        assertThat(MinioController.readField(b)).isEqualTo("2");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void keepsDelimiterLikeBytesInsideFileContent() throws IOException {
+        // 没有前导 CRLF 的 "--boundary"、不完整的分隔符和结尾的单个 CR 都属于文件内容
+        String tricky = "line1\r\nline2\r\n--\r\nx--" + BOUNDARY + "\r\n\r\n--" + BOUNDARY.substring(0, 10)
+                + "x\r\n-" + "\r\n--" + BOUNDARY.substring(0, BOUNDARY.length() - 1) + "\r";
+        byte[] content = tricky.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] body = new MultipartBuilder()
+                .file("file", "tricky.txt", "text/plain", content)
+                .build();
+
+        for (int chunk : new int[] {1, 3, 64}) {
+            MultipartStreamReader reader = new MultipartStreamReader(
+                    new TrickleInputStream(new ByteArrayInputStream(body), chunk), BOUNDARY, 0);
+            assertThat(reader.next().body().readAllBytes()).isEqualTo(content);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void skipsUnreadContentOnNext() throws IOException {
+        byte[] body = new MultipartBuilder()
+                .file("first", "1.bin", "application/octet-stream", randomBytes(50 * 1024))
+                .field("second", "kept")
+                .build();
+        MultipartStreamReader reader = reader(body);
+
+        MultipartStreamReader.Part first = reader.next();
+        first.body().readNBytes(100);
+        MultipartStreamReader.Part second = reader.next();
+        assertThat(first.body().read()).isEqualTo(-1);
+        assertThat(MinioController.readField(second)).isEqualTo("kept");
+    }
+
+    @Test
+    void failsOnTruncatedBody() throws IOException {
+        byte[] full = new MultipartBuilder()
+                .file("file", "a.bin", "application/octet-stream", randomBytes(10 * 1024))
+                .build();
+        // 在文件内容中间截断
+        MultipartStreamReader inContent = reader(Arrays.copyOf(full, full.length / 2));
+        InputStream content = inContent.next().body();
+        assertThatThrownBy(content::readAllBytes)
+                .isInstanceOf(MultipartStreamReader.MalformedMultipartException.class);
+
+        // 在部分头中截断
+        String headerOnly = "--" + BOUNDARY + "\r\nContent-Disposition: form-data; na";
+        MultipartStreamReader inHeader = reader(headerOnly.getBytes(StandardCharsets.ISO_8859_1));
+        assertThatThrownBy(inHeader::next)
+                .isInstanceOf(MultipartStreamReader.MalformedMultipartException.class);
+
+        // 没有任何分隔符
+        MultipartStreamReader empty = reader("no multipart here".getBytes(StandardCharsets.ISO_8859_1));
+        assertThatThrownBy(empty::next)
+                .isInstanceOf(MultipartStreamReader.MalformedMultipartException.class);
+    }
+
+    @Test
+    void rejectsOversizedPartHeaders() {
+        String longValue = "x".repeat(20 * 1024);
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"a\"\r\n"
+                + "X-Padding: " + longValue + "\r\n\r\n"
+                + "1\r\n--" + BOUNDARY + "--\r\n";
+        MultipartStreamReader reader = reader(body.getBytes(StandardCharsets.ISO_8859_1));
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(MultipartStreamReader.MalformedMultipartException.class)
+                .hasMessageContaining("部分头超过");
+    }
+
+    @Test
+    void rejectsMalformedPartHeader() {
+        String body = "--" + BOUNDARY + "\r\nnot a header\r\n\r\n1\r\n--" + BOUNDARY + "--\r\n";
+        MultipartStreamReader reader = reader(body.getBytes(StandardCharsets.ISO_8859_1));
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(MultipartStreamReader.MalformedMultipartException.class);
+    }
+
+    @Test
+    void limitsFieldSize() throws IOException {
+        int maxFieldSize = 64 * 1024;
+        byte[] body = new MultipartBuilder()
+                .field("fits", "a".repeat(maxFieldSize))
+                .field("tooLong", "b".repeat(maxFieldSize + 1))
+                .build();
+        MultipartStreamReader reader = reader(body);
+
+        assertThat(MinioController.readField(reader.next())).hasSize(maxFieldSize);
+        MultipartStreamReader.Part tooLong = reader.next();
+        assertThatThrownBy(() -> MinioController.readField(tooLong))
+                .isInstanceOf(MinioException.class)
+                .extracting(e -> ((MinioException) e).getErrorCode())
+                .isEqualTo(MinioException.INVALID_ARGUMENT_ERROR_CODE);
+    }
+
+    @Test
+    void parsesBoundaryFromContentType() {
+        assertThat(MultipartStreamReader.boundaryOf("multipart/form-data; boundary=abc")).isEqualTo("abc");
+        assertThat(MultipartStreamReader.boundaryOf("Multipart/Form-Data;charset=UTF-8; boundary=\"a b\""))
+                .isEqualTo("a b");
+        assertThat(MultipartStreamReader.boundaryOf("multipart/form-data")).isNull();
+        assertThat(MultipartStreamReader.boundaryOf("multipart/form-data; boundary=" + "x".repeat(71))).isNull();
+        assertThat(MultipartStreamReader.boundaryOf("application/json; boundary=abc")).isNull();
+        assertThat(MultipartStreamReader.boundaryOf(null)).isNull();
+    }
+
+    private static MultipartStreamReader reader(byte[] body) {
+        return new MultipartStreamReader(new ByteArrayInputStream(body), BOUNDARY, 0);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    // 构造 multipart/form-data 请求体
+    private static final class MultipartBuilder {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        MultipartBuilder field(String name, String value) {
+            header("Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n");
+            out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        MultipartBuilder file(String name, String fileName, String contentType, byte[] content) {
+            header("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n"
+                    + "Content-Type: " + contentType + "\r\n\r\n");
+            out.writeBytes(content);
+            return this;
+        }
+
+        byte[] build() {
+            out.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            return out.toByteArray();
+        }
+
+        private void header(String headers) {
+            String delimiter = out.size() == 0 ? "--" + BOUNDARY + "\r\n" : "\r\n--" + BOUNDARY + "\r\n";
+            out.writeBytes((delimiter + headers).getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    // 每次最多返回 chunk 个字节，模拟网络上分批到达的请求体
+    private static final class TrickleInputStream extends FilterInputStream {
+
+        private final int chunk;
+
+        TrickleInputStream(InputStream in, int chunk) {
+            super(in);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, chunk));
+        }
+    }
+}
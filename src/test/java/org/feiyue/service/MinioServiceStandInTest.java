@@ -0,0 +1,156 @@
+package org.feiyue.service;
+
+import org.feiyue.exception.MinioException;
+import org.feiyue.standin.S3StandInServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MinioService 测试：元数据缓存随上传失效、分段下载的分段失败重试、超过一批（1000 个）的批量删除，
+ * 使用内置的 S3 模拟服务（standin 配置）代替 MinIO
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "minio.download.part-size=1MB",
+        "minio.download.parallelism=4",
+        "minio.download.max-retries=2",
+        "minio.retry.initial-backoff=10ms",
+        "minio.retry.max-backoff=50ms"
+})
+@ActiveProfiles("standin")
+class MinioServiceStandInTest {
+
+    private static final String BUCKET = "service-test";
+
+    // 1MB 分段时为 5 个分段，第一个分段随首次请求读取
+    private static final int DOWNLOAD_SIZE = 5 * 1024 * 1024 + 100;
+
+    @Autowired
+    private MinioService minioService;
+
+    @Autowired
+    private S3StandInServer standIn;
+
+    @TempDir
+    Path tempDir;
+
+    @DynamicPropertySource
+    static void standInPort(DynamicPropertyRegistry registry) {
+        int port = freePort();
+        registry.add("minio.standin.port", () -> port);
+    }
+
+    @AfterEach
+    void clearFaults() {
+        standIn.failRangedGets(0);
+    }
+
+    @Test
+    void uploadInvalidatesCachedFileInfo() {
+        String object = "cache/" + UUID.randomUUID() + ".bin";
+        upload(object, randomBytes(100, 1));
+        String cached = minioService.getFileInfo(BUCKET, object).etag();
+
+        // 绕过本服务的写入在有效期内看不到，说明文件信息来自缓存
+        standIn.putObject(BUCKET, object, randomBytes(200, 2));
+        assertThat(minioService.getFileInfo(BUCKET, object).etag()).isEqualTo(cached);
+
+        upload(object, randomBytes(300, 3));
+        assertThat(minioService.getFileInfo(BUCKET, object).etag()).isNotEqualTo(cached);
+        assertThat(minioService.getFileInfo(BUCKET, object).size()).isEqualTo(300);
+    }
+
+    @Test
+    void rangedDownloadRetriesFailedParts() throws IOException {
+        String object = "ranged/" + UUID.randomUUID() + ".bin";
+        byte[] content = randomBytes(DOWNLOAD_SIZE, 4);
+        upload(object, content);
+        long errorsBefore = standIn.injectedErrors();
+
+        standIn.failRangedGets(3);
+        Path target = tempDir.resolve("retried.bin");
+        minioService.downloadFile(BUCKET, object, target.toString());
+
+        assertThat(standIn.injectedErrors() - errorsBefore).isEqualTo(3);
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+    }
+
+    @Test
+    void rangedDownloadFailsOnceRetriesAreExhausted() {
+        String object = "ranged/" + UUID.randomUUID() + ".bin";
+        upload(object, randomBytes(DOWNLOAD_SIZE, 5));
+        long errorsBefore = standIn.injectedErrors();
+
+        standIn.failRangedGets(Integer.MAX_VALUE);
+        Path target = tempDir.resolve("failed.bin");
+        assertThatThrownBy(() -> minioService.downloadFile(BUCKET, object, target.toString()))
+                .isInstanceOf(MinioException.class);
+
+        // 4 个并行分段各最多尝试 max-retries + 1 次，第一个失败后其余分段不再重试
+        assertThat(standIn.injectedErrors() - errorsBefore).isBetween(3L, 4L * 3);
+    }
+
+    @Test
+    void batchDeleteSpansSeveralDeleteRequests() {
+        String prefix = "bulk/" + UUID.randomUUID() + "/";
+        List<String> names = IntStream.range(0, 2500).mapToObj(i -> prefix + i).toList();
+        upload(prefix + "seed", new byte[1]);
+        names.forEach(name -> standIn.putObject(BUCKET, name, new byte[1]));
+        // 请求中不存在的对象也算删除成功
+        List<String> requested = new ArrayList<>(names);
+        requested.add(prefix + "missing");
+
+        List<ObjectDeleteError> errors = new ArrayList<>();
+        BulkDeleteResult result = minioService.deleteObjects(BUCKET, requested.iterator(), errors::add);
+
+        assertThat(errors).isEmpty();
+        assertThat(result.requested()).isEqualTo(2501);
+        assertThat(result.deleted()).isEqualTo(2501);
+        assertThat(result.failed()).isZero();
+        List<String> remaining = new ArrayList<>();
+        minioService.listObjectNames(BUCKET, prefix).forEachRemaining(remaining::add);
+        assertThat(remaining).containsExactly(prefix + "seed");
+    }
+
+    private void upload(String object, byte[] content) {
+        minioService.uploadFile(BUCKET, object, new ByteArrayInputStream(content), content.length,
+                "application/octet-stream");
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.feiyue.service;
+
+import io.minio.StatObjectResponse;
+import okhttp3.Headers;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ObjectMetadataCache 的失效测试：查询期间只有同一个键或其Bucket失效才放弃写入
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class ObjectMetadataCacheTest {
+
+    @Test
+    void invalidatingAnotherKeyKeepsInFlightResult() {
+        ObjectMetadataCache cache = new ObjectMetadataCache(100, Duration.ofMinutes(1));
+        long generation = cache.generation();
+        cache.invalidate("bucket", "other.bin");
+
+        cache.put("bucket", "a.bin", stat("bucket", "a.bin"), generation);
+        assertThat(cache.get("bucket", "a.bin")).isNotNull();
+    }
+
+    @Test
+    void invalidatingSameKeyDropsInFlightResult() {
+        ObjectMetadataCache cache = new ObjectMetadataCache(100, Duration.ofMinutes(1));
+        long generation = cache.generation();
+        cache.invalidate("bucket", "a.bin");
+
+        cache.put("bucket", "a.bin", stat("bucket", "a.bin"), generation);
+        assertThat(cache.get("bucket", "a.bin")).isNull();
+
+        // 失效之后开始的查询可以写入
+        cache.put("bucket", "a.bin", stat("bucket", "a.bin"), cache.generation());
+        assertThat(cache.get("bucket", "a.bin")).isNotNull();
+    }
+
+    @Test
+    void invalidatingBucketDropsInFlightResultsInThatBucketOnly() {
+        ObjectMetadataCache cache = new ObjectMetadataCache(100, Duration.ofMinutes(1));
+        long generation = cache.generation();
+        cache.invalidateBucket("bucket");
+
+        cache.put("bucket", "a.bin", stat("bucket", "a.bin"), generation);
+        cache.put("other", "a.bin", stat("other", "a.bin"), generation);
+        assertThat(cache.get("bucket", "a.bin")).isNull();
+        assertThat(cache.get("other", "a.bin")).isNotNull();
+    }
+
+    @Test
+    void evictedTombstonesStillDropOlderResults() {
+        ObjectMetadataCache cache = new ObjectMetadataCache(2, Duration.ofMinutes(1));
+        long generation = cache.generation();
+        cache.invalidate("bucket", "a.bin");
+        // 失效记录超过上限，a.bin 的记录被淘汰
+        cache.invalidate("bucket", "b.bin");
+        cache.invalidate("bucket", "c.bin");
+
+        cache.put("bucket", "a.bin", stat("bucket", "a.bin"), generation);
+        assertThat(cache.get("bucket", "a.bin")).isNull();
+    }
+
+    private static StatObjectResponse stat(String bucketName, String objectName) {
+        Headers headers = Headers.of("ETag", "\"abc\"", "Content-Length", "1",
+                "Last-Modified", "Mon, 02 Jan 2006 15:04:05 GMT");
+        return new StatObjectResponse(headers, bucketName, null, objectName);
+    }
+}
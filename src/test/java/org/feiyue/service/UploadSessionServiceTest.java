@@ -0,0 +1,231 @@
+package org.feiyue.service;
+
+import org.feiyue.exception.MinioException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 分块上传会话测试，使用内置的 S3 模拟服务（standin 配置）代替 MinIO
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("standin")
+class UploadSessionServiceTest {
+
+    private static final String BUCKET = "session-test";
+
+    // 除最后一块外每块的最小大小
+    private static final int MIN_CHUNK_SIZE = 5 * 1024 * 1024;
+
+    @Autowired
+    private MinioService minioService;
+
+    @DynamicPropertySource
+    static void standInPort(DynamicPropertyRegistry registry) {
+        int port = freePort();
+        registry.add("minio.standin.port", () -> port);
+    }
+
+    @Test
+    void completesChunksUploadedOutOfOrder() throws IOException {
+        byte[] first = randomBytes(MIN_CHUNK_SIZE, 1);
+        byte[] second = randomBytes(MIN_CHUNK_SIZE, 2);
+        byte[] last = randomBytes(1000, 3);
+        UploadSession session = start();
+
+        uploadChunk(session, 3, last);
+        uploadChunk(session, 1, first);
+        uploadChunk(session, 2, second);
+
+        UploadSessionProgress progress = minioService.completeUploadSession(session.sessionId(), 3);
+        assertThat(progress.etag()).isNotBlank();
+        assertThat(progress.chunks()).extracting(UploadSessionProgress.Chunk::chunkNumber).containsExactly(1, 2, 3);
+        assertThat(progress.uploadedBytes()).isEqualTo(2L * MIN_CHUNK_SIZE + 1000);
+
+        try (InputStream content = minioService.getObject(BUCKET, session.objectName(), 0, -1)) {
+            byte[] expected = concat(first, second, last);
+            assertThat(content.readAllBytes()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void rejectsMissingChunks() {
+        UploadSession session = start();
+        uploadChunk(session, 1, randomBytes(MIN_CHUNK_SIZE, 1));
+        uploadChunk(session, 3, randomBytes(10, 3));
+
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), null), "[2]");
+        // 末尾的分块没有上传，只有 chunkCount 能发现
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), 4), "[2, 4]");
+    }
+
+    @Test
+    void rejectsChunksBeyondChunkCount() {
+        UploadSession session = start();
+        uploadChunk(session, 1, randomBytes(MIN_CHUNK_SIZE, 1));
+        uploadChunk(session, 2, randomBytes(10, 2));
+        uploadChunk(session, 3, randomBytes(10, 3));
+
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), 2), "3");
+    }
+
+    @Test
+    @Timeout(10)
+    void rejectsChunkCountOutOfRange() {
+        UploadSession session = start();
+        uploadChunk(session, 1, randomBytes(10, 1));
+
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), Integer.MAX_VALUE), "chunkCount");
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), 10_001), "chunkCount");
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), 0), "chunkCount");
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), -1), "chunkCount");
+    }
+
+    @Test
+    void rejectsSessionWithoutChunks() {
+        UploadSession session = start();
+
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), null), "全部");
+    }
+
+    @Test
+    void rejectsChunksSmallerThanMinimumExceptTheLast() {
+        UploadSession session = start();
+        uploadChunk(session, 1, randomBytes(MIN_CHUNK_SIZE - 1, 1));
+        uploadChunk(session, 2, randomBytes(10, 2));
+
+        assertInvalid(() -> minioService.completeUploadSession(session.sessionId(), 2), "[1]");
+    }
+
+    @Test
+    void singleSmallChunkCompletes() throws IOException {
+        UploadSession session = start();
+        byte[] content = randomBytes(100, 1);
+        uploadChunk(session, 1, content);
+
+        minioService.completeUploadSession(session.sessionId(), null);
+        try (InputStream stored = minioService.getObject(BUCKET, session.objectName(), 0, -1)) {
+            assertThat(stored.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void reuploadedChunkReplacesThePreviousOne() throws IOException {
+        UploadSession session = start();
+        uploadChunk(session, 1, randomBytes(50, 1));
+        byte[] replacement = randomBytes(60, 2);
+        uploadChunk(session, 1, replacement);
+
+        UploadSessionProgress progress = minioService.getUploadSessionProgress(session.sessionId());
+        assertThat(progress.chunks()).hasSize(1);
+        assertThat(progress.uploadedBytes()).isEqualTo(60);
+
+        minioService.completeUploadSession(session.sessionId(), 1);
+        try (InputStream stored = minioService.getObject(BUCKET, session.objectName(), 0, -1)) {
+            assertThat(stored.readAllBytes()).isEqualTo(replacement);
+        }
+    }
+
+    @Test
+    void completedOrAbortedSessionIsNotFound() {
+        UploadSession completed = start();
+        uploadChunk(completed, 1, randomBytes(10, 1));
+        minioService.completeUploadSession(completed.sessionId(), 1);
+
+        // 会话不存在对应 404
+        assertNotFound(() -> minioService.completeUploadSession(completed.sessionId(), 1));
+        assertNotFound(() -> minioService.abortUploadSession(completed.sessionId()));
+        assertNotFound(() -> minioService.getUploadSessionProgress(completed.sessionId()));
+        assertNotFound(() -> minioService.uploadChunk(completed.sessionId(), 2,
+                new ByteArrayInputStream(new byte[10]), 10));
+
+        UploadSession aborted = start();
+        uploadChunk(aborted, 1, randomBytes(10, 1));
+        minioService.abortUploadSession(aborted.sessionId());
+        assertNotFound(() -> minioService.completeUploadSession(aborted.sessionId(), 1));
+        assertNotFound(() -> minioService.abortUploadSession(aborted.sessionId()));
+    }
+
+    @Test
+    void rejectsInvalidChunkNumbers() {
+        UploadSession session = start();
+
+        assertInvalid(() -> uploadChunk(session, 0, new byte[10]), "chunkNumber");
+        assertInvalid(() -> uploadChunk(session, 10_001, new byte[10]), "chunkNumber");
+        assertInvalid(() -> minioService.uploadChunk(session.sessionId(), 1, new ByteArrayInputStream(new byte[0]), 0),
+                "Content-Length");
+    }
+
+    private UploadSession start() {
+        return minioService.startUploadSession(BUCKET, "sessions/" + UUID.randomUUID() + ".bin",
+                "application/octet-stream", -1);
+    }
+
+    private void uploadChunk(UploadSession session, int number, byte[] content) {
+        UploadSessionProgress.Chunk chunk = minioService.uploadChunk(session.sessionId(), number,
+                new ByteArrayInputStream(content), content.length);
+        assertThat(chunk.chunkNumber()).isEqualTo(number);
+        assertThat(chunk.size()).isEqualTo(content.length);
+    }
+
+    private static void assertInvalid(Runnable call, String messageFragment) {
+        assertThatThrownBy(call::run)
+                .isInstanceOf(MinioException.class)
+                .satisfies(e -> {
+                    MinioException error = (MinioException) e;
+                    assertThat(error.getErrorCode()).isEqualTo(MinioException.INVALID_ARGUMENT_ERROR_CODE);
+                    assertThat(error.getMessage() + " " + error.getDetail()).contains(messageFragment);
+                });
+    }
+
+    private static void assertNotFound(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOf(MinioException.class)
+                .extracting(e -> ((MinioException) e).getErrorCode())
+                .isEqualTo(MinioException.FILE_NOT_FOUND_ERROR_CODE);
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        int length = Arrays.stream(arrays).mapToInt(array -> array.length).sum();
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] array : arrays) {
+            System.arraycopy(array, 0, result, offset, array.length);
+            offset += array.length;
+        }
+        return result;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.feiyue.service;
+
+import org.feiyue.exception.MinioException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * UploadSession 的 sessionId 编码和解析测试
+ *
+ * @author feiyue
+ * @since 1.0.0
+ */
+class UploadSessionTest {
+
+    @Test
+    void roundTripsObjectNamesWithSpecialCharacters() {
+        String objectName = "目录/子目录/a b\nc+d=e?.bin";
+        UploadSession session = UploadSession.of("default-bucket", objectName, "upload-1", 8L * 1024 * 1024);
+
+        // URL 安全且没有填充，可以直接放在路径中
+        assertThat(session.sessionId()).matches("[A-Za-z0-9_-]+");
+
+        UploadSession parsed = UploadSession.parse(session.sessionId());
+        assertThat(parsed).isEqualTo(session);
+        assertThat(parsed.objectName()).isEqualTo(objectName);
+        assertThat(parsed.chunkSize()).isEqualTo(8L * 1024 * 1024);
+    }
+
+    @Test
+    void rejectsMalformedSessionIds() {
+        assertInvalid("not base64!");
+        assertInvalid(encode("default-bucket\nupload-1\n1024"));
+        assertInvalid(encode("default-bucket\nupload-1\nabc\nobject"));
+        assertInvalid(encode("\nupload-1\n1024\nobject"));
+        assertInvalid(encode("default-bucket\n\n1024\nobject"));
+        assertInvalid(encode("default-bucket\nupload-1\n1024\n"));
+        assertInvalid("");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(String sessionId) {
+        assertThatThrownBy(() -> UploadSession.parse(sessionId))
+                .isInstanceOf(MinioException.class)
+                .extracting(e -> ((MinioException) e).getErrorCode())
+                .isEqualTo(MinioException.INVALID_ARGUMENT_ERROR_CODE);
+    }
+}